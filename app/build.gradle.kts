@@ -31,15 +31,28 @@ android {
         sourceCompatibility = JavaVersion.VERSION_17
         targetCompatibility = JavaVersion.VERSION_17
     }
+    testOptions {
+        // Unit tests run on the JVM, where android.util.Log and friends are stubs
+        unitTests.isReturnDefaultValues = true
+    }
+    androidResources {
+        // Compiled dictionaries are memory-mapped, so they must stay uncompressed
+        noCompress += "kdict"
+    }
 
 
 }
 
+val dictionaryCompiler: Configuration by configurations.creating
+
 dependencies {
 
+    implementation(project(":dictionary-core"))
+    dictionaryCompiler(project(":dictionary-core"))
     implementation(libs.appcompat)
     implementation(libs.material)
     implementation("com.android.volley:volley:1.2.1")
+    implementation("com.squareup.okhttp3:okhttp:4.12.0")
     implementation("androidx.cardview:cardview:1.0.0")
     implementation("de.hdodenhof:circleimageview:3.1.0")
     implementation("com.google.android.material:material:1.9.0")
@@ -50,10 +63,43 @@ dependencies {
     implementation(platform("com.google.firebase:firebase-bom:33.8.0"))
     implementation("com.google.firebase:firebase-database:21.0.0")
     testImplementation(libs.junit)
+    testImplementation(libs.json.json)
+    testImplementation("com.squareup.okhttp3:mockwebserver:4.12.0")
     implementation(libs.material.v190)
     androidTestImplementation(libs.ext.junit)
     androidTestImplementation(libs.espresso.core)
 }
 
+// Compiles each dictionary_*.json asset into a .kdict file with its search tables already
+// built (see DictionaryFormat), using the same DictionaryNormalizer as the app.
+abstract class CompileDictionariesTask : JavaExec() {
+    @get:InputFiles
+    abstract val sources: ConfigurableFileCollection
+
+    @get:OutputDirectory
+    abstract val outputDir: DirectoryProperty
+
+    override fun exec() {
+        val outDir = outputDir.get().asFile
+        outDir.deleteRecursively()
+        outDir.mkdirs()
+        setArgs(listOf(outDir.absolutePath) + sources.files.map { it.absolutePath })
+        super.exec()
+    }
+}
 
+val compileDictionaries = tasks.register<CompileDictionariesTask>("compileDictionaries") {
+    classpath = dictionaryCompiler
+    mainClass.set("com.translator.kapamtalk.DictionaryCompiler")
+    sources.from(fileTree("src/main/assets") { include("dictionary_*.json") })
+    outputDir.set(layout.buildDirectory.dir("generated/dictionaryAssets"))
+}
 
+androidComponents {
+    onVariants { variant ->
+        variant.sources.assets?.addGeneratedSourceDirectory(
+            compileDictionaries,
+            CompileDictionariesTask::outputDir
+        )
+    }
+}
@@ -0,0 +1,131 @@
+package com.translator.kapamtalk;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Response;
+import okhttp3.WebSocket;
+import okhttp3.WebSocketListener;
+import okio.ByteString;
+
+/**
+ * The WebSocket side of a streaming recognition: a JSON config message, binary
+ * little-endian 16-bit mono PCM frames, then {"event": "end"}. The server replies with
+ * {"partial": ...} messages and finally {"transcription": ..., "final": true}, or
+ * {"error": ...}. Callbacks run on OkHttp's WebSocket thread.
+ */
+class AsrStreamConnection {
+    private static final String TAG = "AsrStreamConnection";
+
+    static final String FLASK_ASR_STREAM_ENDPOINT = "/asr_stream";
+
+    interface Callback {
+        void onPartial(String text);
+
+        void onFinal(String transcription);
+
+        // Reported at most once; nothing more is sent or delivered afterwards
+        void onFailure();
+    }
+
+    private final OkHttpClient httpClient;
+    private final String baseUrl;
+    private final String language;
+    private final int sampleRate;
+    private final Callback callback;
+    private final AtomicBoolean failed = new AtomicBoolean(false);
+
+    private volatile WebSocket webSocket;
+
+    AsrStreamConnection(OkHttpClient httpClient, String baseUrl, String language, int sampleRate,
+                        Callback callback) {
+        this.httpClient = httpClient;
+        this.baseUrl = baseUrl;
+        this.language = language;
+        this.sampleRate = sampleRate;
+        this.callback = callback;
+    }
+
+    void open() {
+        String url = baseUrl.replaceFirst("^http", "ws") + FLASK_ASR_STREAM_ENDPOINT;
+        okhttp3.Request request = new okhttp3.Request.Builder().url(url).build();
+        webSocket = httpClient.newWebSocket(request, new WebSocketListener() {
+            @Override
+            public void onMessage(@NonNull WebSocket socket, @NonNull String text) {
+                handleMessage(text);
+            }
+
+            @Override
+            public void onFailure(@NonNull WebSocket socket, @NonNull Throwable t, Response response) {
+                Log.w(TAG, "Streaming ASR unavailable", t);
+                fail();
+            }
+        });
+
+        // Messages sent before the handshake completes are queued by OkHttp
+        JSONObject config = new JSONObject();
+        try {
+            config.put("language", language);
+            config.put("sample_rate", sampleRate);
+            config.put("encoding", "pcm_s16le");
+        } catch (JSONException e) {
+            Log.e(TAG, "Error building streaming ASR config", e);
+        }
+        webSocket.send(config.toString());
+    }
+
+    boolean hasFailed() {
+        return failed.get();
+    }
+
+    void sendAudio(byte[] pcm, int offset, int length) {
+        if (failed.get()) return;
+        webSocket.send(ByteString.of(pcm, offset, length));
+    }
+
+    // Asks for the final transcription once every frame has been sent
+    void end() {
+        if (failed.get()) return;
+        webSocket.send("{\"event\": \"end\"}");
+    }
+
+    void cancel() {
+        failed.set(true);
+        WebSocket socket = webSocket;
+        if (socket != null) {
+            socket.cancel();
+        }
+    }
+
+    private void handleMessage(String text) {
+        try {
+            JSONObject message = new JSONObject(text);
+            if (message.has("error")) {
+                Log.w(TAG, "Streaming ASR error: " + message.getString("error"));
+                webSocket.close(1000, null);
+                fail();
+            } else if (message.optBoolean("final", false)) {
+                String transcription = message.getString("transcription");
+                webSocket.close(1000, null);
+                callback.onFinal(transcription);
+            } else if (message.has("partial")) {
+                callback.onPartial(message.getString("partial"));
+            }
+        } catch (JSONException e) {
+            Log.e(TAG, "Error parsing streaming ASR message", e);
+        }
+    }
+
+    private void fail() {
+        if (failed.compareAndSet(false, true)) {
+            callback.onFailure();
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.translator.kapamtalk;
+
+import android.content.Context;
+import android.media.AudioAttributes;
+import android.media.MediaDataSource;
+import android.media.MediaPlayer;
+import android.util.Log;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+
+/**
+ * The one place audio is played from: lesson and exam pronunciations and translator
+ * speech. MediaPlayers are created ahead of time and recycled with reset() instead of
+ * being allocated and released on every tap.
+ *
+ * Only one clip plays at a time. A new clip replaces the current one if its priority is
+ * at least as high; otherwise it is refused. Must be used from the main thread.
+ */
+public class AudioPlaybackEngine {
+    private static final String TAG = "AudioPlaybackEngine";
+
+    // A tap on a lesson or exam item
+    public static final int PRIORITY_PRONUNCIATION = 1;
+    // Speech the user asked the translator for
+    public static final int PRIORITY_SPEECH = 2;
+
+    private static final int POOL_SIZE = 2;
+
+    private static AudioPlaybackEngine instance;
+
+    public interface Listener {
+        // All callbacks run on the main thread
+        void onComplete();
+
+        void onError(int what, int extra);
+
+        // Stopped, replaced by another clip, or refused for a higher-priority one
+        default void onStopped() {
+        }
+    }
+
+    private final AudioAttributes attributes = new AudioAttributes.Builder()
+            .setContentType(AudioAttributes.CONTENT_TYPE_SPEECH)
+            .setUsage(AudioAttributes.USAGE_MEDIA)
+            .build();
+    private final ArrayDeque<MediaPlayer> idlePlayers = new ArrayDeque<>();
+    private Playback current;
+
+    private AudioPlaybackEngine() {
+    }
+
+    public static synchronized AudioPlaybackEngine getInstance(Context context) {
+        if (instance == null) {
+            instance = new AudioPlaybackEngine();
+        }
+        return instance;
+    }
+
+    /**
+     * Creates the pooled players so the first tap does not pay for native setup.
+     */
+    public void warmUp() {
+        while (idlePlayers.size() < POOL_SIZE) {
+            idlePlayers.push(newPlayer());
+        }
+    }
+
+    /**
+     * Plays a local file path or URL. Returns null if the clip could not be started,
+     * in which case the listener has already been told why.
+     */
+    public Playback play(Object owner, String pathOrUrl, int priority, Listener listener) {
+        Playback playback = begin(owner, priority, listener);
+        if (playback == null) return null;
+        try {
+            playback.player.setDataSource(pathOrUrl);
+        } catch (IOException | IllegalStateException e) {
+            Log.e(TAG, "Cannot play " + pathOrUrl, e);
+            playback.fail(MediaPlayer.MEDIA_ERROR_UNKNOWN, MediaPlayer.MEDIA_ERROR_IO);
+            return null;
+        }
+        return playback.prepare();
+    }
+
+    /**
+     * Plays audio that is still arriving, such as a {@link StreamingAudioSource}.
+     */
+    public Playback play(Object owner, MediaDataSource source, int priority, Listener listener) {
+        Playback playback = begin(owner, priority, listener);
+        if (playback == null) return null;
+        try {
+            playback.player.setDataSource(source);
+        } catch (IllegalStateException e) {
+            Log.e(TAG, "Cannot play stream", e);
+            playback.fail(MediaPlayer.MEDIA_ERROR_UNKNOWN, MediaPlayer.MEDIA_ERROR_IO);
+            return null;
+        }
+        // A blocked readAt would stall reset(), so stream players are never recycled
+        playback.recyclable = false;
+        return playback.prepare();
+    }
+
+    /**
+     * Stops whatever this owner is playing without calling its listener; for onDestroy.
+     */
+    public void stop(Object owner) {
+        if (current != null && current.owner == owner) {
+            current.end();
+        }
+    }
+
+    /**
+     * Frees the idle players; called when the system is low on memory.
+     */
+    public void releasePool() {
+        while (!idlePlayers.isEmpty()) {
+            idlePlayers.pop().release();
+        }
+    }
+
+    private Playback begin(Object owner, int priority, Listener listener) {
+        if (current != null) {
+            if (current.priority > priority) {
+                listener.onStopped();
+                return null;
+            }
+            current.stop();
+        }
+        MediaPlayer player = idlePlayers.isEmpty() ? newPlayer() : idlePlayers.pop();
+        current = new Playback(owner, priority, listener, player);
+        return current;
+    }
+
+    private MediaPlayer newPlayer() {
+        MediaPlayer player = new MediaPlayer();
+        player.setAudioAttributes(attributes);
+        return player;
+    }
+
+    private void recycle(MediaPlayer player, boolean reusable) {
+        if (reusable && idlePlayers.size() < POOL_SIZE) {
+            try {
+                player.reset();
+                // Set again in case reset() dropped them
+                player.setAudioAttributes(attributes);
+                idlePlayers.push(player);
+                return;
+            } catch (IllegalStateException e) {
+                Log.w(TAG, "Player could not be reset", e);
+            }
+        }
+        player.release();
+    }
+
+    public class Playback {
+        private final Object owner;
+        private final int priority;
+        private final Listener listener;
+        private final MediaPlayer player;
+        private boolean recyclable = true;
+        private boolean prepared = false;
+        private boolean ended = false;
+
+        private Playback(Object owner, int priority, Listener listener, MediaPlayer player) {
+            this.owner = owner;
+            this.priority = priority;
+            this.listener = listener;
+            this.player = player;
+        }
+
+        /**
+         * Stops playback and reports {@link Listener#onStopped()}.
+         */
+        public void stop() {
+            if (end()) {
+                listener.onStopped();
+            }
+        }
+
+        private Playback prepare() {
+            player.setOnPreparedListener(mp -> {
+                if (ended) return;
+                prepared = true;
+                mp.start();
+            });
+            player.setOnCompletionListener(mp -> {
+                if (end()) {
+                    listener.onComplete();
+                }
+            });
+            player.setOnErrorListener((mp, what, extra) -> {
+                fail(what, extra);
+                return true;
+            });
+            player.prepareAsync();
+            return this;
+        }
+
+        private void fail(int what, int extra) {
+            // A player that reported an error is not trusted again
+            recyclable = false;
+            if (end()) {
+                listener.onError(what, extra);
+            }
+        }
+
+        // Returns the player to the pool; false if this playback had already ended
+        private boolean end() {
+            if (ended) return false;
+            ended = true;
+            if (current == this) {
+                current = null;
+            }
+            player.setOnPreparedListener(null);
+            player.setOnCompletionListener(null);
+            player.setOnErrorListener(null);
+            // A player still preparing may be mid-read; only prepared ones are reset and reused
+            recycle(player, recyclable && prepared);
+            return true;
+        }
+    }
+}
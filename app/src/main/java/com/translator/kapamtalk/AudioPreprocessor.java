@@ -0,0 +1,560 @@
+package com.translator.kapamtalk;
+
+import android.media.MediaCodec;
+import android.media.MediaCodecInfo;
+import android.media.MediaExtractor;
+import android.media.MediaFormat;
+import android.media.MediaMuxer;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Shrinks a recording before it is uploaded for ASR or evaluation: decodes it to PCM
+ * (or takes PCM captured in memory), downmixes to mono, trims leading and trailing
+ * silence with an energy-based voice activity check, and re-encodes as low-bitrate Opus
+ * in an Ogg container (AAC in MP4 where no Opus encoder is available). Any failure falls
+ * back to the original file. PCM captured in memory is encoded in memory as well, to
+ * AAC with ADTS framing, since the Ogg and MP4 muxers can only write to a file.
+ */
+public final class AudioPreprocessor {
+    private static final String TAG = "AudioPreprocessor";
+
+    private static final long CODEC_TIMEOUT_US = 10_000;
+
+    // Voice activity detection
+    private static final int FRAME_MS = 20;
+    private static final int PADDING_MS = 200;
+    private static final double SPEECH_ABOVE_NOISE_DB = 10.0;
+    private static final double MIN_SPEECH_DBFS = -50.0;
+    // When most of a take is speech its quietest tenth is speech too; no real background is louder
+    private static final double MAX_NOISE_FLOOR_DBFS = -40.0;
+
+    // Speech-tuned encoder settings
+    private static final int OPUS_BIT_RATE = 24_000;
+    private static final int AAC_BIT_RATE = 32_000;
+
+    // ADTS sampling frequency indexes, in order
+    private static final int[] ADTS_SAMPLE_RATES = {
+            96000, 88200, 64000, 48000, 44100, 32000, 24000, 22050, 16000, 12000, 11025, 8000, 7350};
+    static final int ADTS_HEADER_BYTES = 7;
+
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private AudioPreprocessor() {
+    }
+
+    /**
+     * The audio to upload, with the file name and MIME type to put on the multipart part.
+     */
+    public static class ProcessedAudio {
+        private final File file;
+        private final String fileName;
+        private final String mimeType;
+        private final long durationMs;
+
+        ProcessedAudio(File file, String fileName, String mimeType, long durationMs) {
+            this.file = file;
+            this.fileName = fileName;
+            this.mimeType = mimeType;
+            this.durationMs = durationMs;
+        }
+
+        public File getFile() {
+            return file;
+        }
+
+        public String getFileName() {
+            return fileName;
+        }
+
+        public String getMimeType() {
+            return mimeType;
+        }
+
+        // Duration after trimming, or -1 when the original file is passed through
+        public long getDurationMs() {
+            return durationMs;
+        }
+    }
+
+    public interface Callback {
+        // Called on the main thread; audio is null only when PCM could not be written at all
+        void onProcessed(ProcessedAudio audio);
+    }
+
+    /**
+     * Compressed audio held in memory, with the file name and MIME type to put on the
+     * multipart part.
+     */
+    public static class EncodedAudio {
+        private final byte[] data;
+        private final String fileName;
+        private final String mimeType;
+        private final long durationMs;
+
+        EncodedAudio(byte[] data, String fileName, String mimeType, long durationMs) {
+            this.data = data;
+            this.fileName = fileName;
+            this.mimeType = mimeType;
+            this.durationMs = durationMs;
+        }
+
+        public byte[] getData() {
+            return data;
+        }
+
+        public String getFileName() {
+            return fileName;
+        }
+
+        public String getMimeType() {
+            return mimeType;
+        }
+
+        // Duration after trimming
+        public long getDurationMs() {
+            return durationMs;
+        }
+    }
+
+    public interface EncodeCallback {
+        // Called on the main thread
+        void onEncoded(EncodedAudio audio);
+    }
+
+    /**
+     * Processes the recording in the background. The callback receives the compressed
+     * file, or the original (with the given name and type) if processing failed.
+     */
+    public static void processAsync(File input, String fallbackFileName, String fallbackMimeType,
+                                    Callback callback) {
+        executor.execute(() -> {
+            ProcessedAudio processed = process(input);
+            ProcessedAudio result = processed != null
+                    ? processed
+                    : new ProcessedAudio(input, fallbackFileName, fallbackMimeType, -1);
+            mainHandler.post(() -> callback.onProcessed(result));
+        });
+    }
+
+    /**
+     * Runs the whole pipeline on the calling thread; returns null on failure.
+     */
+    public static ProcessedAudio process(File input) {
+        long start = System.currentTimeMillis();
+        try {
+            int[] format = new int[1];
+            short[] pcm = decodeToMono(input, format);
+            int sampleRate = format[0];
+            if (pcm.length == 0) return null;
+
+            int[] bounds = findSpeechBounds(pcm, pcm.length, sampleRate);
+            short[] trimmed = Arrays.copyOfRange(pcm, bounds[0], bounds[1]);
+            long durationMs = trimmed.length * 1000L / sampleRate;
+
+            String baseName = input.getName();
+            int dot = baseName.lastIndexOf('.');
+            if (dot > 0) baseName = baseName.substring(0, dot);
+
+            ProcessedAudio result = compress(trimmed, sampleRate, input.getParentFile(),
+                    baseName + "_upload", durationMs);
+            if (result != null) {
+                Log.d(TAG, "Preprocessed " + input.length() + " -> " + result.getFile().length() + " bytes, "
+                        + (pcm.length * 1000L / sampleRate) + " -> " + durationMs + " ms in "
+                        + (System.currentTimeMillis() - start) + " ms");
+            }
+            return result;
+        } catch (IOException | RuntimeException e) {
+            Log.e(TAG, "Audio preprocessing failed, uploading the original recording", e);
+            return null;
+        }
+    }
+
+    /**
+     * Trims and compresses PCM captured in memory in the background, without touching
+     * disk: the result is AAC with ADTS framing, which needs no container and so no
+     * muxer file. Without a working AAC encoder it is the trimmed PCM as WAV bytes.
+     */
+    public static void encodePcmAsync(short[] pcm, int sampleRate, EncodeCallback callback) {
+        executor.execute(() -> {
+            EncodedAudio result = encodePcm(pcm, sampleRate);
+            mainHandler.post(() -> callback.onEncoded(result));
+        });
+    }
+
+    /**
+     * Same as {@link #encodePcmAsync} on the calling thread.
+     */
+    public static EncodedAudio encodePcm(short[] pcm, int sampleRate) {
+        long start = System.currentTimeMillis();
+        int[] bounds = findSpeechBounds(pcm, pcm.length, sampleRate);
+        short[] trimmed = Arrays.copyOfRange(pcm, bounds[0], bounds[1]);
+        long durationMs = trimmed.length * 1000L / sampleRate;
+
+        EncodedAudio result;
+        byte[] aac = encodeAdts(trimmed, sampleRate);
+        if (aac != null) {
+            result = new EncodedAudio(aac, "audio.aac", "audio/aac", durationMs);
+        } else {
+            result = new EncodedAudio(WavFormat.encode(trimmed, 0, trimmed.length, sampleRate),
+                    "audio.wav", "audio/wav", durationMs);
+        }
+
+        Log.d(TAG, "Encoded " + pcm.length * 2 + " -> " + result.getData().length + " bytes, "
+                + (pcm.length * 1000L / sampleRate) + " -> " + durationMs + " ms in "
+                + (System.currentTimeMillis() - start) + " ms");
+        return result;
+    }
+
+    // Opus in Ogg, else AAC in MP4; null when neither encoder works
+    private static ProcessedAudio compress(short[] pcm, int sampleRate, File dir, String baseName,
+                                           long durationMs) {
+        File opusFile = new File(dir, baseName + ".ogg");
+        if (encode(pcm, sampleRate, MediaFormat.MIMETYPE_AUDIO_OPUS, OPUS_BIT_RATE,
+                MediaMuxer.OutputFormat.MUXER_OUTPUT_OGG, opusFile)) {
+            return new ProcessedAudio(opusFile, "audio.ogg", "audio/ogg", durationMs);
+        }
+        File aacFile = new File(dir, baseName + ".m4a");
+        if (encode(pcm, sampleRate, MediaFormat.MIMETYPE_AUDIO_AAC, AAC_BIT_RATE,
+                MediaMuxer.OutputFormat.MUXER_OUTPUT_MPEG_4, aacFile)) {
+            return new ProcessedAudio(aacFile, "audio.m4a", "audio/mp4", durationMs);
+        }
+        return null;
+    }
+
+    /**
+     * Decodes the first audio track to 16-bit mono PCM; sampleRateOut[0] receives the rate.
+     */
+    static short[] decodeToMono(File input, int[] sampleRateOut) throws IOException {
+        MediaExtractor extractor = new MediaExtractor();
+        MediaCodec decoder = null;
+        try {
+            extractor.setDataSource(input.getAbsolutePath());
+            int track = -1;
+            for (int i = 0; i < extractor.getTrackCount(); i++) {
+                String mime = extractor.getTrackFormat(i).getString(MediaFormat.KEY_MIME);
+                if (mime != null && mime.startsWith("audio/")) {
+                    track = i;
+                    break;
+                }
+            }
+            if (track < 0) throw new IOException("No audio track in " + input);
+
+            extractor.selectTrack(track);
+            MediaFormat inputFormat = extractor.getTrackFormat(track);
+            int sampleRate = inputFormat.getInteger(MediaFormat.KEY_SAMPLE_RATE);
+            int channels = inputFormat.getInteger(MediaFormat.KEY_CHANNEL_COUNT);
+
+            decoder = MediaCodec.createDecoderByType(inputFormat.getString(MediaFormat.KEY_MIME));
+            decoder.configure(inputFormat, null, null, 0);
+            decoder.start();
+
+            short[] pcm = new short[sampleRate * 5];
+            int length = 0;
+            MediaCodec.BufferInfo info = new MediaCodec.BufferInfo();
+            boolean inputDone = false;
+            boolean outputDone = false;
+
+            while (!outputDone) {
+                if (!inputDone) {
+                    int inIndex = decoder.dequeueInputBuffer(CODEC_TIMEOUT_US);
+                    if (inIndex >= 0) {
+                        ByteBuffer inBuffer = decoder.getInputBuffer(inIndex);
+                        int size = extractor.readSampleData(inBuffer, 0);
+                        if (size < 0) {
+                            decoder.queueInputBuffer(inIndex, 0, 0, 0, MediaCodec.BUFFER_FLAG_END_OF_STREAM);
+                            inputDone = true;
+                        } else {
+                            decoder.queueInputBuffer(inIndex, 0, size, extractor.getSampleTime(), 0);
+                            extractor.advance();
+                        }
+                    }
+                }
+
+                int outIndex = decoder.dequeueOutputBuffer(info, CODEC_TIMEOUT_US);
+                if (outIndex == MediaCodec.INFO_OUTPUT_FORMAT_CHANGED) {
+                    MediaFormat outputFormat = decoder.getOutputFormat();
+                    sampleRate = outputFormat.getInteger(MediaFormat.KEY_SAMPLE_RATE);
+                    channels = outputFormat.getInteger(MediaFormat.KEY_CHANNEL_COUNT);
+                } else if (outIndex >= 0) {
+                    ByteBuffer outBuffer = decoder.getOutputBuffer(outIndex);
+                    outBuffer.position(info.offset);
+                    outBuffer.limit(info.offset + info.size);
+                    ShortBuffer samples = outBuffer.order(ByteOrder.LITTLE_ENDIAN).asShortBuffer();
+
+                    // Downmix by averaging the channels of each frame
+                    int frames = samples.remaining() / channels;
+                    if (length + frames > pcm.length) {
+                        pcm = Arrays.copyOf(pcm, Math.max(pcm.length * 2, length + frames));
+                    }
+                    for (int f = 0; f < frames; f++) {
+                        int sum = 0;
+                        for (int c = 0; c < channels; c++) {
+                            sum += samples.get();
+                        }
+                        pcm[length++] = (short) (sum / channels);
+                    }
+
+                    decoder.releaseOutputBuffer(outIndex, false);
+                    if ((info.flags & MediaCodec.BUFFER_FLAG_END_OF_STREAM) != 0) {
+                        outputDone = true;
+                    }
+                }
+            }
+
+            sampleRateOut[0] = sampleRate;
+            return Arrays.copyOf(pcm, length);
+        } finally {
+            if (decoder != null) {
+                try {
+                    decoder.stop();
+                } catch (IllegalStateException ignored) {
+                    // Codec never started
+                }
+                decoder.release();
+            }
+            extractor.release();
+        }
+    }
+
+    /**
+     * Returns [start, end) sample offsets around the detected speech, padded on both
+     * sides. Frames count as speech when they are well above the recording's own noise
+     * floor; if nothing qualifies the whole range is kept.
+     */
+    static int[] findSpeechBounds(short[] pcm, int length, int sampleRate) {
+        int frameSize = frameSize(sampleRate);
+        double[] levels = frameLevels(pcm, length, sampleRate);
+        int frameCount = levels.length;
+        if (frameCount == 0) return new int[]{0, length};
+
+        double threshold = speechThreshold(noiseFloor(levels));
+
+        int first = -1;
+        int last = -1;
+        for (int f = 0; f < frameCount; f++) {
+            if (levels[f] >= threshold) {
+                if (first < 0) first = f;
+                last = f;
+            }
+        }
+        if (first < 0) return new int[]{0, length};
+
+        int padding = sampleRate * PADDING_MS / 1000;
+        int start = Math.max(0, first * frameSize - padding);
+        int end = Math.min(length, (last + 1) * frameSize + padding);
+        return new int[]{start, end};
+    }
+
+    static int frameSize(int sampleRate) {
+        return Math.max(1, sampleRate * FRAME_MS / 1000);
+    }
+
+    // RMS level of every whole frame, in dBFS
+    static double[] frameLevels(short[] pcm, int length, int sampleRate) {
+        int frameSize = frameSize(sampleRate);
+        double[] levels = new double[length / frameSize];
+        for (int f = 0; f < levels.length; f++) {
+            levels[f] = frameDbfs(pcm, f * frameSize, frameSize);
+        }
+        return levels;
+    }
+
+    // The quietest tenth of the recording approximates the background noise
+    static double noiseFloor(double[] levels) {
+        double[] sorted = levels.clone();
+        Arrays.sort(sorted);
+        return sorted[levels.length / 10];
+    }
+
+    // Frames at or above this level count as speech
+    static double speechThreshold(double noiseFloor) {
+        double floor = Math.min(noiseFloor, MAX_NOISE_FLOOR_DBFS);
+        return Math.max(floor + SPEECH_ABOVE_NOISE_DB, MIN_SPEECH_DBFS);
+    }
+
+    // RMS level of one frame in dB relative to full scale
+    static double frameDbfs(short[] pcm, int offset, int size) {
+        double sumSquares = 0;
+        for (int i = offset; i < offset + size; i++) {
+            double sample = pcm[i] / 32768.0;
+            sumSquares += sample * sample;
+        }
+        double rms = Math.sqrt(sumSquares / size);
+        return rms > 0 ? 20 * Math.log10(rms) : -120.0;
+    }
+
+    // Receives the encoder's output format and then its encoded frames
+    private interface FrameSink {
+        void start(MediaFormat format) throws IOException;
+
+        void write(ByteBuffer frame, MediaCodec.BufferInfo info) throws IOException;
+    }
+
+    private static boolean encode(short[] pcm, int sampleRate, String mime, int bitRate,
+                                  int muxerFormat, File output) {
+        MediaMuxer muxer;
+        try {
+            muxer = new MediaMuxer(output.getAbsolutePath(), muxerFormat);
+        } catch (IOException e) {
+            Log.w(TAG, "Cannot create " + output, e);
+            return false;
+        }
+        boolean success = false;
+        try {
+            int[] track = {-1};
+            boolean encoded = encode(pcm, sampleRate, mime, bitRate, new FrameSink() {
+                @Override
+                public void start(MediaFormat format) {
+                    track[0] = muxer.addTrack(format);
+                    muxer.start();
+                }
+
+                @Override
+                public void write(ByteBuffer frame, MediaCodec.BufferInfo info) {
+                    muxer.writeSampleData(track[0], frame, info);
+                }
+            });
+            if (encoded) {
+                muxer.stop();
+                success = true;
+            }
+            return success;
+        } catch (RuntimeException e) {
+            Log.w(TAG, "Writing " + mime + " to " + output + " failed", e);
+            return false;
+        } finally {
+            muxer.release();
+            if (!success) {
+                output.delete();
+            }
+        }
+    }
+
+    // AAC-LC frames, each behind its ADTS header; null when there is no working encoder
+    static byte[] encodeAdts(short[] pcm, int sampleRate) {
+        int frequencyIndex = adtsFrequencyIndex(sampleRate);
+        if (frequencyIndex < 0) return null;
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(pcm.length / 4);
+        boolean success = encode(pcm, sampleRate, MediaFormat.MIMETYPE_AUDIO_AAC, AAC_BIT_RATE, new FrameSink() {
+            @Override
+            public void start(MediaFormat format) {
+            }
+
+            @Override
+            public void write(ByteBuffer frame, MediaCodec.BufferInfo info) {
+                out.write(adtsHeader(frequencyIndex, info.size), 0, ADTS_HEADER_BYTES);
+                byte[] payload = new byte[info.size];
+                frame.get(payload);
+                out.write(payload, 0, payload.length);
+            }
+        });
+        return success ? out.toByteArray() : null;
+    }
+
+    static int adtsFrequencyIndex(int sampleRate) {
+        for (int i = 0; i < ADTS_SAMPLE_RATES.length; i++) {
+            if (ADTS_SAMPLE_RATES[i] == sampleRate) return i;
+        }
+        return -1;
+    }
+
+    // MPEG-4 AAC-LC, mono, no CRC; the frame length includes the header itself
+    static byte[] adtsHeader(int frequencyIndex, int payloadBytes) {
+        int frameLength = payloadBytes + ADTS_HEADER_BYTES;
+        return new byte[]{
+                (byte) 0xFF,
+                (byte) 0xF1,
+                (byte) ((MediaCodecInfo.CodecProfileLevel.AACObjectLC - 1) << 6 | frequencyIndex << 2),
+                (byte) (1 << 6 | frameLength >> 11),
+                (byte) (frameLength >> 3),
+                (byte) ((frameLength & 7) << 5 | 0x1F),
+                (byte) 0xFC};
+    }
+
+    // Feeds the PCM through the encoder; the sink sees every frame but the codec config
+    private static boolean encode(short[] pcm, int sampleRate, String mime, int bitRate, FrameSink sink) {
+        MediaCodec encoder = null;
+        try {
+            MediaFormat format = MediaFormat.createAudioFormat(mime, sampleRate, 1);
+            format.setInteger(MediaFormat.KEY_BIT_RATE, bitRate);
+            if (MediaFormat.MIMETYPE_AUDIO_AAC.equals(mime)) {
+                format.setInteger(MediaFormat.KEY_AAC_PROFILE, MediaCodecInfo.CodecProfileLevel.AACObjectLC);
+            }
+
+            encoder = MediaCodec.createEncoderByType(mime);
+            encoder.configure(format, null, null, MediaCodec.CONFIGURE_FLAG_ENCODE);
+            encoder.start();
+
+            boolean started = false;
+            int fed = 0;
+            boolean inputDone = false;
+            MediaCodec.BufferInfo info = new MediaCodec.BufferInfo();
+
+            while (true) {
+                if (!inputDone) {
+                    int inIndex = encoder.dequeueInputBuffer(CODEC_TIMEOUT_US);
+                    if (inIndex >= 0) {
+                        ByteBuffer inBuffer = encoder.getInputBuffer(inIndex);
+                        inBuffer.clear();
+                        long timeUs = fed * 1_000_000L / sampleRate;
+                        int count = Math.min(inBuffer.remaining() / 2, pcm.length - fed);
+                        if (count <= 0) {
+                            encoder.queueInputBuffer(inIndex, 0, 0, timeUs, MediaCodec.BUFFER_FLAG_END_OF_STREAM);
+                            inputDone = true;
+                        } else {
+                            inBuffer.order(ByteOrder.LITTLE_ENDIAN).asShortBuffer().put(pcm, fed, count);
+                            encoder.queueInputBuffer(inIndex, 0, count * 2, timeUs, 0);
+                            fed += count;
+                        }
+                    }
+                }
+
+                int outIndex = encoder.dequeueOutputBuffer(info, CODEC_TIMEOUT_US);
+                if (outIndex == MediaCodec.INFO_OUTPUT_FORMAT_CHANGED) {
+                    sink.start(encoder.getOutputFormat());
+                    started = true;
+                } else if (outIndex >= 0) {
+                    ByteBuffer outBuffer = encoder.getOutputBuffer(outIndex);
+                    // Codec config is carried by the track format or the ADTS header, not written as a frame
+                    boolean isConfig = (info.flags & MediaCodec.BUFFER_FLAG_CODEC_CONFIG) != 0;
+                    if (!isConfig && info.size > 0 && started) {
+                        outBuffer.position(info.offset);
+                        outBuffer.limit(info.offset + info.size);
+                        sink.write(outBuffer, info);
+                    }
+                    encoder.releaseOutputBuffer(outIndex, false);
+                    if ((info.flags & MediaCodec.BUFFER_FLAG_END_OF_STREAM) != 0) {
+                        break;
+                    }
+                }
+            }
+            return started;
+        } catch (IOException | RuntimeException e) {
+            Log.w(TAG, "Encoding to " + mime + " failed", e);
+            return false;
+        } finally {
+            if (encoder != null) {
+                try {
+                    encoder.stop();
+                } catch (IllegalStateException ignored) {
+                    // Codec never started
+                }
+                encoder.release();
+            }
+        }
+    }
+}
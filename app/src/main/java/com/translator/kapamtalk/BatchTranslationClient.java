@@ -0,0 +1,269 @@
+package com.translator.kapamtalk;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.text.BreakIterator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+
+/**
+ * Translates several sentences in one round trip. Sentences are posted together to
+ * /translate_batch, which streams one JSON object per line as each sentence is done;
+ * if the server has no batch endpoint (or the batch fails) the sentences go through the
+ * translation engine one at a time instead. Either way results are reported per sentence, as they arrive.
+ */
+public class BatchTranslationClient {
+    private static final String TAG = "BatchTranslationClient";
+
+    private static final String FLASK_BATCH_TRANSLATION_ENDPOINT = "/translate_batch";
+    private static final MediaType JSON = MediaType.parse("application/json; charset=utf-8");
+
+    // Servers that answered 404/405, so later batches to them skip straight to the fallback
+    private static final Set<String> batchEndpointUnsupported = ConcurrentHashMap.newKeySet();
+
+    public interface Listener {
+        // Both callbacks run on the main thread and stop once the call is cancelled
+        void onSentenceTranslated(int index, String translatedText);
+
+        void onComplete(int failedCount);
+    }
+
+    private final OkHttpClient httpClient;
+    private final String baseUrl;
+    private final TranslationEngine translationEngine;
+    private final TranslationCache translationCache;
+    private final ExecutorService networkExecutor = Executors.newSingleThreadExecutor();
+    private final Executor mainThread;
+
+    public BatchTranslationClient(NetworkClient networkClient, TranslationEngine translationEngine,
+                                  TranslationCache translationCache) {
+        this(networkClient.getHttpClient(), NetworkClient.FLASK_BASE_URL, translationEngine,
+                translationCache, new Handler(Looper.getMainLooper())::post);
+    }
+
+    // Tests point this at a local server and run callbacks on their own thread
+    BatchTranslationClient(OkHttpClient httpClient, String baseUrl, TranslationEngine translationEngine,
+                           TranslationCache translationCache, Executor mainThread) {
+        this.httpClient = httpClient;
+        this.baseUrl = baseUrl;
+        this.translationEngine = translationEngine;
+        this.translationCache = translationCache;
+        this.mainThread = mainThread;
+    }
+
+    /**
+     * Splits text into trimmed, non-empty sentences.
+     */
+    public static List<String> splitSentences(String text) {
+        List<String> sentences = new ArrayList<>();
+        BreakIterator iterator = BreakIterator.getSentenceInstance(Locale.ROOT);
+        iterator.setText(text);
+        int start = iterator.first();
+        for (int end = iterator.next(); end != BreakIterator.DONE; start = end, end = iterator.next()) {
+            String sentence = text.substring(start, end).trim();
+            if (!sentence.isEmpty()) {
+                sentences.add(sentence);
+            }
+        }
+        return sentences;
+    }
+
+    public Call translate(List<String> sentences, String sourceLanguage, String targetLanguage,
+                          Listener listener) {
+        Call call = new Call(sentences, sourceLanguage, targetLanguage, listener);
+        call.start();
+        return call;
+    }
+
+    public class Call {
+        private final List<String> sentences;
+        private final String sourceLanguage;
+        private final String targetLanguage;
+        private final Listener listener;
+        private final AtomicInteger remaining;
+        private final AtomicInteger failed = new AtomicInteger();
+        private volatile boolean cancelled = false;
+        private volatile okhttp3.Call batchCall;
+
+        private Call(List<String> sentences, String sourceLanguage, String targetLanguage, Listener listener) {
+            this.sentences = sentences;
+            this.sourceLanguage = sourceLanguage;
+            this.targetLanguage = targetLanguage;
+            this.listener = listener;
+            this.remaining = new AtomicInteger(sentences.size());
+        }
+
+        public void cancel() {
+            cancelled = true;
+            translationEngine.cancelAll(this);
+            okhttp3.Call current = batchCall;
+            if (current != null) {
+                current.cancel();
+            }
+        }
+
+        private void start() {
+            // Sentences translated before never leave the device
+            List<Integer> missing = new ArrayList<>();
+            for (int i = 0; i < sentences.size(); i++) {
+                String cached = translationCache.getFromMemory(sentences.get(i), sourceLanguage, targetLanguage);
+                if (cached != null) {
+                    deliver(i, cached);
+                } else {
+                    missing.add(i);
+                }
+            }
+            if (missing.isEmpty()) return;
+
+            if (missing.size() == 1 || batchEndpointUnsupported.contains(baseUrl)) {
+                sendIndividually(missing);
+            } else {
+                networkExecutor.execute(() -> sendBatch(missing));
+            }
+        }
+
+        private void sendBatch(List<Integer> missing) {
+            boolean[] done = new boolean[missing.size()];
+            try {
+                JSONArray texts = new JSONArray();
+                for (int index : missing) {
+                    texts.put(sentences.get(index));
+                }
+                JSONObject jsonBody = new JSONObject();
+                jsonBody.put("texts", texts);
+                jsonBody.put("source_language", sourceLanguage);
+                jsonBody.put("target_language", targetLanguage);
+
+                okhttp3.Request request = new okhttp3.Request.Builder()
+                        .url(baseUrl + FLASK_BATCH_TRANSLATION_ENDPOINT)
+                        .header("Accept", "application/x-ndjson, application/json")
+                        .post(RequestBody.create(jsonBody.toString(), JSON))
+                        .build();
+                okhttp3.Call call = httpClient.newCall(request);
+                batchCall = call;
+                if (cancelled) return;
+
+                try (Response response = call.execute()) {
+                    int code = response.code();
+                    if (code == 404 || code == 405) {
+                        Log.i(TAG, "Batch endpoint unavailable, translating sentences individually");
+                        batchEndpointUnsupported.add(baseUrl);
+                        mainThread.execute(() -> sendIndividually(missing));
+                        return;
+                    }
+                    if (!response.isSuccessful() || response.body() == null) {
+                        throw new IOException("Server returned HTTP " + code);
+                    }
+
+                    // One {"index", "translated_text"} object per line; a single {"translations": [...]} also works
+                    BufferedReader reader = new BufferedReader(
+                            new InputStreamReader(response.body().byteStream(), StandardCharsets.UTF_8));
+                    String line;
+                    while (!cancelled && (line = reader.readLine()) != null) {
+                        line = line.trim();
+                        if (line.isEmpty()) continue;
+                        JSONObject item = new JSONObject(line);
+                        JSONArray translations = item.optJSONArray("translations");
+                        if (translations != null) {
+                            for (int k = 0; k < translations.length() && k < missing.size(); k++) {
+                                deliverBatchItem(missing, done, k, translations.getString(k));
+                            }
+                        } else {
+                            deliverBatchItem(missing, done, item.getInt("index"), item.getString("translated_text"));
+                        }
+                    }
+                }
+            } catch (IOException | JSONException e) {
+                if (!cancelled) {
+                    Log.e(TAG, "Batch translation failed", e);
+                }
+            } finally {
+                batchCall = null;
+            }
+
+            if (cancelled) return;
+
+            // Whatever the stream did not cover is retried one sentence at a time
+            List<Integer> remainingIndexes = new ArrayList<>();
+            for (int k = 0; k < done.length; k++) {
+                if (!done[k]) {
+                    remainingIndexes.add(missing.get(k));
+                }
+            }
+            if (!remainingIndexes.isEmpty()) {
+                mainThread.execute(() -> sendIndividually(remainingIndexes));
+            }
+        }
+
+        private void deliverBatchItem(List<Integer> missing, boolean[] done, int k, String translatedText) {
+            if (k < 0 || k >= missing.size() || done[k]) return;
+            done[k] = true;
+            int index = missing.get(k);
+            translationCache.put(sentences.get(index), sourceLanguage, targetLanguage, translatedText);
+            deliver(index, translatedText);
+        }
+
+        // Fallback: one engine request per sentence, all tagged with this call
+        private void sendIndividually(List<Integer> missing) {
+            if (cancelled) return;
+            for (int index : missing) {
+                String sentence = sentences.get(index);
+                translationEngine.translate(sentence, sourceLanguage, targetLanguage, this,
+                        new TranslationEngine.Callback() {
+                            @Override
+                            public void onSuccess(String translatedText) {
+                                translationCache.put(sentence, sourceLanguage, targetLanguage, translatedText);
+                                deliver(index, translatedText);
+                            }
+
+                            @Override
+                            public void onError(Exception error) {
+                                fail();
+                            }
+                        });
+            }
+        }
+
+        private void deliver(int index, String translatedText) {
+            mainThread.execute(() -> {
+                if (cancelled) return;
+                listener.onSentenceTranslated(index, translatedText);
+                if (remaining.decrementAndGet() == 0) {
+                    listener.onComplete(failed.get());
+                }
+            });
+        }
+
+        private void fail() {
+            failed.incrementAndGet();
+            mainThread.execute(() -> {
+                if (cancelled) return;
+                if (remaining.decrementAndGet() == 0) {
+                    listener.onComplete(failed.get());
+                }
+            });
+        }
+    }
+}
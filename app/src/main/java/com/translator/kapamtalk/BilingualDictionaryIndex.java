@@ -0,0 +1,59 @@
+package com.translator.kapamtalk;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Searches the English and Kapampangan dictionaries in one pass. Each side matches
+ * its own headwords and, through its reverse meaning index, headwords whose meaning
+ * is the query, so an English word finds Kapampangan entries and vice versa.
+ */
+public class BilingualDictionaryIndex {
+
+    private final DictionaryIndex english;
+    private final DictionaryIndex kapampangan;
+
+    /**
+     * Either side may be null while it is still loading; it is then simply skipped.
+     */
+    public BilingualDictionaryIndex(DictionaryIndex english, DictionaryIndex kapampangan) {
+        this.english = english;
+        this.kapampangan = kapampangan;
+    }
+
+    public boolean isEmpty() {
+        return size(english) == 0 && size(kapampangan) == 0;
+    }
+
+    /**
+     * Ranks matches from both dictionaries together. Entries of the preferred
+     * language win ties, so the language toggle still decides what comes first.
+     */
+    public DictionaryIndex.SearchResult search(String rawQuery, int limit, boolean preferEnglish) {
+        DictionaryIndex first = preferEnglish ? english : kapampangan;
+        DictionaryIndex second = preferEnglish ? kapampangan : english;
+        int firstSize = size(first);
+        int total = firstSize + size(second);
+        if (limit <= 0 || total == 0) {
+            return new DictionaryIndex.SearchResult(new ArrayList<>(), 0);
+        }
+
+        BitSet matched = new BitSet(total);
+        DictionaryIndex.TopK top = new DictionaryIndex.TopK(Math.min(limit, total));
+        if (first != null) first.collect(rawQuery, top, matched, 0);
+        if (second != null) second.collect(rawQuery, top, matched, firstSize);
+
+        long[] ranked = top.sortedDescending();
+        List<DictionaryEntry> results = new ArrayList<>(ranked.length);
+        for (long key : ranked) {
+            int id = DictionaryIndex.TopK.idOf(key);
+            results.add(id < firstSize ? first.getEntry(id) : second.getEntry(id - firstSize));
+        }
+        return new DictionaryIndex.SearchResult(results, matched.cardinality());
+    }
+
+    private static int size(DictionaryIndex index) {
+        return index != null ? index.size() : 0;
+    }
+}
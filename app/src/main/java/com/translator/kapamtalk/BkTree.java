@@ -0,0 +1,126 @@
+package com.translator.kapamtalk;
+
+import java.util.Arrays;
+
+/**
+ * Burkhard-Keller tree over a fixed array of keys, used for typo-tolerant lookups.
+ * Nodes are the key ids themselves and children are kept in array-backed linked
+ * lists, so the tree costs a few ints per key and nothing is allocated per node.
+ */
+class BkTree {
+
+    private static final int NONE = -1;
+
+    private final String[] keys;
+    private final int root;
+    private final int[] firstChild;
+    private final int[] nextSibling;
+    private final int[] distanceToParent;
+    // Ids whose key equals this node's key hang off the node instead of becoming children
+    private final int[] nextEqual;
+
+    BkTree(String[] keys) {
+        this.keys = keys;
+        int n = keys.length;
+        firstChild = new int[n];
+        nextSibling = new int[n];
+        distanceToParent = new int[n];
+        nextEqual = new int[n];
+        Arrays.fill(firstChild, NONE);
+        Arrays.fill(nextSibling, NONE);
+        Arrays.fill(nextEqual, NONE);
+
+        int first = NONE;
+        int[][] rows = new int[2][];
+        for (int id = 0; id < n; id++) {
+            if (keys[id].isEmpty()) continue;
+            if (first == NONE) {
+                first = id;
+            } else {
+                insert(first, id, rows);
+            }
+        }
+        root = first;
+    }
+
+    /**
+     * Collects ids whose key is within maxDistance edits of the query into
+     * matches/distances, stopping after maxVisits distance computations.
+     */
+    void search(String query, int maxDistance, int maxVisits,
+                DictionaryIndex.IntList matches, DictionaryIndex.IntList distances) {
+        if (root == NONE || query.isEmpty()) return;
+
+        int[][] rows = new int[2][];
+        DictionaryIndex.IntList stack = new DictionaryIndex.IntList();
+        stack.add(root);
+        int visits = 0;
+
+        while (stack.size > 0 && visits < maxVisits) {
+            int node = stack.items[--stack.size];
+            int d = distance(query, keys[node], rows);
+            visits++;
+
+            if (d <= maxDistance) {
+                for (int id = node; id != NONE; id = nextEqual[id]) {
+                    matches.add(id);
+                    distances.add(d);
+                }
+            }
+            // Triangle inequality: only children at distance d +/- maxDistance can match
+            for (int child = firstChild[node]; child != NONE; child = nextSibling[child]) {
+                if (Math.abs(distanceToParent[child] - d) <= maxDistance) {
+                    stack.add(child);
+                }
+            }
+        }
+    }
+
+    private void insert(int root, int id, int[][] rows) {
+        int node = root;
+        while (true) {
+            int d = distance(keys[id], keys[node], rows);
+            if (d == 0) {
+                nextEqual[id] = nextEqual[node];
+                nextEqual[node] = id;
+                return;
+            }
+            int child = firstChild[node];
+            while (child != NONE && distanceToParent[child] != d) {
+                child = nextSibling[child];
+            }
+            if (child == NONE) {
+                distanceToParent[id] = d;
+                nextSibling[id] = firstChild[node];
+                firstChild[node] = id;
+                return;
+            }
+            node = child;
+        }
+    }
+
+    // Two-row Levenshtein distance; rows are reused between calls
+    private static int distance(String a, String b, int[][] rows) {
+        int m = b.length();
+        if (rows[0] == null || rows[0].length < m + 1) {
+            rows[0] = new int[m + 1];
+            rows[1] = new int[m + 1];
+        }
+        int[] prev = rows[0];
+        int[] curr = rows[1];
+        for (int j = 0; j <= m; j++) prev[j] = j;
+
+        for (int i = 1; i <= a.length(); i++) {
+            curr[0] = i;
+            char ca = a.charAt(i - 1);
+            for (int j = 1; j <= m; j++) {
+                int cost = ca == b.charAt(j - 1) ? 0 : 1;
+                curr[j] = Math.min(Math.min(curr[j - 1] + 1, prev[j] + 1), prev[j - 1] + cost);
+            }
+            int[] swap = prev;
+            prev = curr;
+            curr = swap;
+        }
+        return prev[m];
+    }
+}
@@ -39,10 +39,10 @@ import java.io.IOException;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class Dictionary extends AppCompatActivity {
 
@@ -69,8 +69,23 @@ public class Dictionary extends AppCompatActivity {
     private static final long SEARCH_DELAY_MS = 300;
     private Handler searchHandler = new Handler(Looper.getMainLooper());
     private Runnable searchRunnable;
-    private List<DictionaryEntry> allEntries = new ArrayList<>();
-    private boolean isEnglishSelected = false;
+    private final ExecutorService searchExecutor = Executors.newSingleThreadExecutor();
+    // Bumped on every keystroke; a search only delivers if it is still the latest one
+    private final AtomicInteger searchGeneration = new AtomicInteger();
+    private CompletableFuture<Void> pendingSearch;
+    // Completes once both languages are indexed; queries chain onto it
+    private CompletableFuture<BilingualDictionaryIndex> dictionaryReady;
+    // Selected language only (or its first parsed page) so early queries get provisional results
+    private volatile BilingualDictionaryIndex provisionalIndex;
+
+    // Paging: results are ranked top-K, and scrolling near the end asks for the next page
+    private static final int RESULTS_PAGE_SIZE = 50;
+    private static final int LOAD_MORE_THRESHOLD = 10;
+    private String currentQuery;
+    private int resultLimit = RESULTS_PAGE_SIZE;
+    private boolean hasMoreResults = false;
+    private boolean isLoadingMore = false;
+    private volatile boolean isEnglishSelected = false;
 
     // Constants
     private static final int CONNECT_TIMEOUT_MS = 10000;
@@ -133,7 +148,7 @@ public class Dictionary extends AppCompatActivity {
 
     private void setupRecyclerView() {
         recyclerView.setLayoutManager(new LinearLayoutManager(this));
-        adapter = new DictionaryAdapter(new ArrayList<>());
+        adapter = new DictionaryAdapter();
         adapter.setOnItemClickListener(this::showDictionaryEntryDialog);
         recyclerView.setAdapter(adapter);
 
@@ -147,6 +162,17 @@ public class Dictionary extends AppCompatActivity {
                     hideKeyboard();
                 }
             }
+
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                super.onScrolled(recyclerView, dx, dy);
+                if (dy <= 0 || !hasMoreResults || isLoadingMore) return;
+                LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+                if (layoutManager != null && layoutManager.findLastVisibleItemPosition()
+                        >= adapter.getItemCount() - LOAD_MORE_THRESHOLD) {
+                    loadMoreResults();
+                }
+            }
         });
     }
 
@@ -161,15 +187,17 @@ public class Dictionary extends AppCompatActivity {
                 if (searchRunnable != null) {
                     searchHandler.removeCallbacks(searchRunnable);
                 }
+                // Invalidate whatever search is still running for the previous text
+                searchGeneration.incrementAndGet();
 
                 final String query = s.toString().trim().toLowerCase();
 
                 if (query.isEmpty()) {
-                    adapter.setEntries(new ArrayList<>());
+                    clearResults();
                     return;
                 }
 
-                searchRunnable = () -> performRealTimeSearch(query);
+                searchRunnable = () -> startNewSearch(query);
                 searchHandler.postDelayed(searchRunnable, SEARCH_DELAY_MS);
             }
 
@@ -185,7 +213,10 @@ public class Dictionary extends AppCompatActivity {
                 if (query.isEmpty()) {
                     showEmptySearchMessage();
                 } else {
-                    performRealTimeSearch(query);
+                    if (searchRunnable != null) {
+                        searchHandler.removeCallbacks(searchRunnable);
+                    }
+                    startNewSearch(query);
                 }
                 searchBar.clearFocus();
                 hideKeyboard();
@@ -272,24 +303,98 @@ public class Dictionary extends AppCompatActivity {
     }
 
     private void updateDictionaryLanguage(boolean isEnglish) {
+        searchGeneration.incrementAndGet();
         isEnglishSelected = isEnglish;
-        adapter.setEntries(new ArrayList<>());
+        clearResults();
         searchBar.setText("");
         loadDictionaryData();
     }
 
     private void loadDictionaryData() {
-        new Thread(() -> {
-            allEntries = DictionaryUtils.loadDictionaryData(Dictionary.this, isEnglishSelected);
-            if (allEntries == null) {
-                allEntries = new ArrayList<>();
+        final boolean isEnglish = isEnglishSelected;
+        DictionaryCache cache = DictionaryCache.getInstance(this);
+        provisionalIndex = null;
+        dictionaryReady = cache.getBilingualIndex(isEnglish, firstPage -> {
+            if (isEnglish == isEnglishSelected) {
+                provisionalIndex = singleLanguage(new DictionaryIndex(firstPage, isEnglish), isEnglish);
+                refreshProvisionalResults(isEnglish);
             }
-        }).start();
+        });
+        // The selected language usually finishes first; search it while the other one loads
+        cache.getIndex(isEnglish, null).thenAccept(index -> {
+            if (isEnglish == isEnglishSelected) {
+                provisionalIndex = singleLanguage(index, isEnglish);
+                refreshProvisionalResults(isEnglish);
+            }
+        });
+    }
+
+    // A query typed before more of the dictionary arrived is answered again with it
+    private void refreshProvisionalResults(boolean isEnglish) {
+        runOnUiThread(() -> {
+            if (!isActivityValid() || isEnglish != isEnglishSelected) return;
+            if (currentQuery != null && !dictionaryReady.isDone()) {
+                submitSearch(currentQuery, resultLimit);
+            }
+        });
+    }
+
+    private static BilingualDictionaryIndex singleLanguage(DictionaryIndex index, boolean isEnglish) {
+        return isEnglish
+                ? new BilingualDictionaryIndex(index, null)
+                : new BilingualDictionaryIndex(null, index);
+    }
+
+    private void clearResults() {
+        currentQuery = null;
+        hasMoreResults = false;
+        isLoadingMore = false;
+        adapter.setEntries(new ArrayList<>());
+    }
+
+    private void startNewSearch(String query) {
+        currentQuery = query;
+        resultLimit = RESULTS_PAGE_SIZE;
+        hasMoreResults = false;
+        isLoadingMore = false;
+        submitSearch(query, resultLimit);
+    }
+
+    private void loadMoreResults() {
+        if (currentQuery == null) return;
+        isLoadingMore = true;
+        resultLimit += RESULTS_PAGE_SIZE;
+        submitSearch(currentQuery, resultLimit);
     }
 
-    private void performRealTimeSearch(String query) {
-        if (allEntries.isEmpty()) {
+    private void submitSearch(String query, int limit) {
+        final int generation = searchGeneration.incrementAndGet();
+        if (pendingSearch != null) {
+            pendingSearch.cancel(false);
+        }
+
+        BilingualDictionaryIndex provisional = provisionalIndex;
+        if (!dictionaryReady.isDone() && provisional != null) {
+            searchExecutor.execute(() -> performRealTimeSearch(provisional, query, limit, generation, false));
+        }
+        // Queued until the dictionary is ready, then answered on the search executor
+        pendingSearch = dictionaryReady.thenAcceptAsync(
+                index -> performRealTimeSearch(index, query, limit, generation, true), searchExecutor);
+    }
+
+    private boolean isSearchCurrent(int generation) {
+        return generation == searchGeneration.get();
+    }
+
+    // Runs on searchExecutor; results are dropped if a newer query was issued meanwhile
+    private void performRealTimeSearch(BilingualDictionaryIndex index, String query, int limit,
+                                       int generation, boolean isFinal) {
+        if (!isSearchCurrent(generation)) return;
+
+        if (index.isEmpty()) {
+            if (!isFinal) return;
             runOnUiThread(() -> {
+                if (!isSearchCurrent(generation)) return;
                 String message = isEnglishSelected
                         ? "Dictionary data not available."
                         : "E ya magamit ing talausuk kapampangan.";
@@ -298,51 +403,23 @@ public class Dictionary extends AppCompatActivity {
             return;
         }
 
-        List<DictionaryEntry> results = new ArrayList<>();
-        Map<DictionaryEntry, Integer> relevanceMap = new HashMap<>();
+        final DictionaryIndex.SearchResult result = index.search(query, limit, isEnglishSelected);
+        if (!isSearchCurrent(generation)) return;
 
-        for (DictionaryEntry entry : allEntries) {
-            String word = entry.getWord().toLowerCase();
-            String meaning = entry.getMeaning().toLowerCase();
-
-            int relevance = calculateRelevance(word, meaning, query);
-
-            if (relevance > 0) {
-                relevanceMap.put(entry, relevance);
-                results.add(entry);
-            }
-        }
-
-        Collections.sort(results, (a, b) -> relevanceMap.get(b).compareTo(relevanceMap.get(a)));
-
-        final List<DictionaryEntry> finalResults = results;
         runOnUiThread(() -> {
-            if (finalResults.isEmpty()) {
+            if (!isSearchCurrent(generation) || !isActivityValid()) return;
+            if (isFinal && result.totalMatches == 0) {
                 String message = isEnglishSelected
                         ? "No results found."
                         : "Alang meakit a salita.";
                 Toast.makeText(Dictionary.this, message, Toast.LENGTH_SHORT).show();
             }
-            adapter.setEntries(finalResults);
+            hasMoreResults = isFinal && result.hasMore();
+            isLoadingMore = false;
+            adapter.setEntries(result.entries);
         });
     }
 
-    private int calculateRelevance(String word, String meaning, String query) {
-        int relevance = 0;
-
-        if (word.equals(query)) {
-            relevance += 100;
-        } else if (word.startsWith(query)) {
-            relevance += 75;
-        } else if (word.contains(query)) {
-            relevance += 50;
-        } else if (meaning.contains(query)) {
-            relevance += 25;
-        }
-
-        return relevance;
-    }
-
     private void showDictionaryEntryDialog(DictionaryEntry entry) {
         AlertDialog.Builder builder = new AlertDialog.Builder(this);
         View dialogView = LayoutInflater.from(this).inflate(R.layout.dialog_dictionary_entry, null);
@@ -601,6 +678,8 @@ public class Dictionary extends AppCompatActivity {
         if (searchHandler != null && searchRunnable != null) {
             searchHandler.removeCallbacks(searchRunnable);
         }
+        searchGeneration.incrementAndGet();
+        searchExecutor.shutdownNow();
         super.onDestroy();
     }
 }
\ No newline at end of file
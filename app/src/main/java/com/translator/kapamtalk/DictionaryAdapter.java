@@ -5,12 +5,15 @@ import android.view.View;
 import android.view.ViewGroup;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
-public class DictionaryAdapter extends RecyclerView.Adapter<DictionaryAdapter.DictionaryViewHolder> {
+public class DictionaryAdapter extends ListAdapter<DictionaryEntry, DictionaryAdapter.DictionaryViewHolder> {
 
-    private List<DictionaryEntry> entries;
     private OnItemClickListener listener;
 
     // Interface for click handling
@@ -18,8 +21,24 @@ public class DictionaryAdapter extends RecyclerView.Adapter<DictionaryAdapter.Di
         void onItemClick(DictionaryEntry entry);
     }
 
-    public DictionaryAdapter(List<DictionaryEntry> entries) {
-        this.entries = entries;
+    // Entries come from the shared index, so the same word is the same instance across searches
+    private static final DiffUtil.ItemCallback<DictionaryEntry> DIFF_CALLBACK =
+            new DiffUtil.ItemCallback<DictionaryEntry>() {
+                @Override
+                public boolean areItemsTheSame(@NonNull DictionaryEntry oldItem, @NonNull DictionaryEntry newItem) {
+                    return oldItem == newItem;
+                }
+
+                @Override
+                public boolean areContentsTheSame(@NonNull DictionaryEntry oldItem, @NonNull DictionaryEntry newItem) {
+                    return Objects.equals(oldItem.getWord(), newItem.getWord())
+                            && Objects.equals(oldItem.getMeaning(), newItem.getMeaning())
+                            && Objects.equals(oldItem.getPronunciation(), newItem.getPronunciation());
+                }
+            };
+
+    public DictionaryAdapter() {
+        super(DIFF_CALLBACK);
     }
 
     // Method to set click listener
@@ -27,9 +46,9 @@ public class DictionaryAdapter extends RecyclerView.Adapter<DictionaryAdapter.Di
         this.listener = listener;
     }
 
+    // Diffs against the current list off the main thread; only changed rows rebind
     public void setEntries(List<DictionaryEntry> entries) {
-        this.entries = entries;
-        notifyDataSetChanged();
+        submitList(entries != null ? new ArrayList<>(entries) : null);
     }
 
     @NonNull
@@ -42,7 +61,7 @@ public class DictionaryAdapter extends RecyclerView.Adapter<DictionaryAdapter.Di
 
     @Override
     public void onBindViewHolder(@NonNull DictionaryViewHolder holder, int position) {
-        DictionaryEntry entry = entries.get(position);
+        DictionaryEntry entry = getItem(position);
         holder.wordText.setText(entry.getWord());
         holder.meaningText.setText(entry.getMeaning());
         holder.pronunciationText.setText(entry.getPronunciation());
@@ -55,11 +74,6 @@ public class DictionaryAdapter extends RecyclerView.Adapter<DictionaryAdapter.Di
         });
     }
 
-    @Override
-    public int getItemCount() {
-        return entries != null ? entries.size() : 0;
-    }
-
     static class DictionaryViewHolder extends RecyclerView.ViewHolder {
         TextView wordText, meaningText, pronunciationText;
 
@@ -70,4 +84,4 @@ public class DictionaryAdapter extends RecyclerView.Adapter<DictionaryAdapter.Di
             pronunciationText = itemView.findViewById(R.id.pronunciationText);
         }
     }
-}
\ No newline at end of file
+}
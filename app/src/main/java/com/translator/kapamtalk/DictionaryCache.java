@@ -0,0 +1,134 @@
+package com.translator.kapamtalk;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.util.Log;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Process-wide holder for both dictionary indexes. Each language is loaded once and
+ * reused across language toggles and activity restarts until memory pressure evicts it.
+ * Callers get a future that completes when the index is ready, so nobody ever sees a
+ * partially published dataset.
+ */
+public class DictionaryCache {
+    private static final String TAG = "DictionaryCache";
+
+    private static DictionaryCache instance;
+
+    private final Context appContext;
+    private final ExecutorService loadExecutor = Executors.newSingleThreadExecutor();
+
+    // Guarded by this
+    private CompletableFuture<DictionaryIndex> englishIndex;
+    private CompletableFuture<DictionaryIndex> kapampanganIndex;
+    private CompletableFuture<BilingualDictionaryIndex> bilingualIndex;
+    // The per-language futures the bilingual index was combined from
+    private CompletableFuture<DictionaryIndex> bilingualEnglishSource;
+    private CompletableFuture<DictionaryIndex> bilingualKapampanganSource;
+    private boolean lastUsedEnglish;
+
+    private DictionaryCache(Context context) {
+        appContext = context.getApplicationContext();
+    }
+
+    public static synchronized DictionaryCache getInstance(Context context) {
+        if (instance == null) {
+            instance = new DictionaryCache(context);
+        }
+        return instance;
+    }
+
+    /**
+     * Returns a future for the language's index, starting a load if it is neither
+     * cached nor in flight. The listener only fires when this call starts the load.
+     */
+    public synchronized CompletableFuture<DictionaryIndex> getIndex(
+            boolean isEnglish, DictionaryUtils.OnFirstPageLoadedListener listener) {
+        lastUsedEnglish = isEnglish;
+        return getOrLoad(isEnglish, listener);
+    }
+
+    /**
+     * Returns a future for the index spanning both dictionaries. The preferred
+     * language is loaded first and gets the first-page listener.
+     */
+    public synchronized CompletableFuture<BilingualDictionaryIndex> getBilingualIndex(
+            boolean preferEnglish, DictionaryUtils.OnFirstPageLoadedListener listener) {
+        lastUsedEnglish = preferEnglish;
+        CompletableFuture<DictionaryIndex> preferred = getOrLoad(preferEnglish, listener);
+        CompletableFuture<DictionaryIndex> other = getOrLoad(!preferEnglish, null);
+        CompletableFuture<DictionaryIndex> english = preferEnglish ? preferred : other;
+        CompletableFuture<DictionaryIndex> kapampangan = preferEnglish ? other : preferred;
+
+        // Recombine whenever either side was evicted or reloaded
+        if (bilingualIndex == null
+                || bilingualEnglishSource != english
+                || bilingualKapampanganSource != kapampangan) {
+            bilingualEnglishSource = english;
+            bilingualKapampanganSource = kapampangan;
+            bilingualIndex = english.thenCombine(kapampangan, BilingualDictionaryIndex::new);
+        }
+        return bilingualIndex;
+    }
+
+    /**
+     * Called from the application's onTrimMemory. Moderate pressure drops the language
+     * that was not used last; severe pressure drops both.
+     */
+    public synchronized void onTrimMemory(int level) {
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_COMPLETE
+                || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+            Log.d(TAG, "Evicting both dictionaries (trim level " + level + ")");
+            englishIndex = null;
+            kapampanganIndex = null;
+            clearBilingualIndex();
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND
+                || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+            Log.d(TAG, "Evicting unused dictionary (trim level " + level + ")");
+            if (lastUsedEnglish) {
+                kapampanganIndex = null;
+            } else {
+                englishIndex = null;
+            }
+            // It still references the evicted language, so let it go too
+            clearBilingualIndex();
+        }
+    }
+
+    // The source futures hold the evicted indexes too, so they are dropped with it
+    private void clearBilingualIndex() {
+        bilingualIndex = null;
+        bilingualEnglishSource = null;
+        bilingualKapampanganSource = null;
+    }
+
+    private CompletableFuture<DictionaryIndex> getOrLoad(
+            boolean isEnglish, DictionaryUtils.OnFirstPageLoadedListener listener) {
+        CompletableFuture<DictionaryIndex> future = isEnglish ? englishIndex : kapampanganIndex;
+        if (future != null && !isFailed(future)) {
+            return future;
+        }
+
+        future = CompletableFuture.supplyAsync(
+                () -> DictionaryUtils.loadDictionaryIndex(appContext, isEnglish, listener),
+                loadExecutor);
+        if (isEnglish) {
+            englishIndex = future;
+        } else {
+            kapampanganIndex = future;
+        }
+        return future;
+    }
+
+    // A load that produced nothing (e.g. unreadable asset) is retried on the next request
+    private static boolean isFailed(CompletableFuture<DictionaryIndex> future) {
+        if (!future.isDone()) return false;
+        if (future.isCompletedExceptionally()) return true;
+        DictionaryIndex index = future.getNow(null);
+        return index == null || index.isEmpty();
+    }
+}
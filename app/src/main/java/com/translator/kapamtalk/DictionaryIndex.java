@@ -0,0 +1,341 @@
+package com.translator.kapamtalk;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Read-only search index over a dictionary, built once when the data is loaded.
+ * All keys are folded by {@link DictionaryNormalizer} up front, so spelling variants
+ * match without any per-entry string work at query time. Prefix matches come from a
+ * sorted array of word and pronunciation keys, "contains" matches on words and
+ * meanings come from trigram posting lists, and misspellings are caught by a BK-tree.
+ * Whole words of each meaning are also indexed, so a translation finds its headword.
+ * Everything but the BK-tree is usually precomputed at build time, see
+ * {@link DictionaryTables}.
+ */
+public class DictionaryIndex {
+
+    // Relevance scores; ties are broken by position in the dictionary file
+    public static final int SCORE_EXACT = 100;
+    public static final int SCORE_PREFIX = 75;
+    public static final int SCORE_MEANING_WORD = 60;
+    public static final int SCORE_WORD_CONTAINS = 50;
+    public static final int SCORE_FUZZY_CLOSE = 40;
+    public static final int SCORE_MEANING_CONTAINS = 25;
+    public static final int SCORE_FUZZY_FAR = 15;
+
+    // Typo tolerance: one edit for short queries, two from six characters on
+    private static final int FUZZY_MIN_QUERY_LENGTH = 3;
+    private static final int FUZZY_TWO_EDITS_LENGTH = 6;
+    // Caps the BK-tree walk so a query stays within a few milliseconds on large dictionaries
+    private static final int FUZZY_MAX_VISITS = 3000;
+
+    private final DictionaryEntry[] entries;
+    private final boolean isEnglish;
+    private final String[] wordKeys;
+    private final String[] meaningKeys;
+
+    // Word and pronunciation keys ordered alphabetically, for binary-searched prefix lookups
+    private final String[] sortedKeys;
+    private final int[] sortedIds;
+
+    private final GramTable wordGrams;
+    private final GramTable meaningGrams;
+    private final BkTree fuzzyWords;
+    // Reverse index from each whole word of a meaning to the entries it translates
+    private final WordTable meaningWords;
+
+    public static class SearchResult {
+        public final List<DictionaryEntry> entries;
+        public final int totalMatches;
+
+        SearchResult(List<DictionaryEntry> entries, int totalMatches) {
+            this.entries = entries;
+            this.totalMatches = totalMatches;
+        }
+
+        public boolean hasMore() {
+            return entries.size() < totalMatches;
+        }
+    }
+
+    public DictionaryIndex(List<DictionaryEntry> source, boolean isEnglish) {
+        this(toArray(source), isEnglish);
+    }
+
+    private DictionaryIndex(DictionaryEntry[] entries, boolean isEnglish) {
+        this(entries, isEnglish, DictionaryTables.build(entries, isEnglish));
+    }
+
+    // Used with the tables stored in a compiled dictionary, so nothing is folded again
+    DictionaryIndex(DictionaryEntry[] entries, boolean isEnglish, DictionaryTables tables) {
+        this.entries = entries;
+        this.isEnglish = isEnglish;
+        this.wordKeys = tables.wordKeys;
+        this.meaningKeys = tables.meaningKeys;
+        this.sortedKeys = tables.sortedKeys;
+        this.sortedIds = tables.sortedIds;
+        this.wordGrams = tables.wordGrams;
+        this.meaningGrams = tables.meaningGrams;
+        this.meaningWords = tables.meaningWords;
+
+        fuzzyWords = new BkTree(this.wordKeys);
+    }
+
+    public int size() {
+        return entries.length;
+    }
+
+    public boolean isEmpty() {
+        return entries.length == 0;
+    }
+
+    public DictionaryEntry getEntry(int id) {
+        return entries[id];
+    }
+
+    /**
+     * Returns every entry matching the query, best matches first. Entries with the
+     * same relevance keep their original order in the dictionary file.
+     */
+    public List<DictionaryEntry> search(String rawQuery) {
+        return search(rawQuery, Integer.MAX_VALUE).entries;
+    }
+
+    /**
+     * Returns the best {@code limit} matches plus the total number of matches, so
+     * callers can page through large result sets without ranking all of them.
+     */
+    public SearchResult search(String rawQuery, int limit) {
+        if (limit <= 0 || entries.length == 0) {
+            return new SearchResult(new ArrayList<>(), 0);
+        }
+        BitSet matched = new BitSet(entries.length);
+        TopK top = new TopK(Math.min(limit, entries.length));
+        collect(rawQuery, top, matched, 0);
+
+        long[] ranked = top.sortedDescending();
+        List<DictionaryEntry> results = new ArrayList<>(ranked.length);
+        for (long key : ranked) {
+            results.add(entries[TopK.idOf(key)]);
+        }
+        return new SearchResult(results, matched.cardinality());
+    }
+
+    /**
+     * Offers every match to {@code top} with ids shifted by {@code idOffset}, so several
+     * indexes can be ranked together. Stages run from the highest score down and an
+     * entry already marked in {@code matched} is never offered again.
+     */
+    void collect(String rawQuery, TopK top, BitSet matched, int idOffset) {
+        String wordQuery = foldWord(rawQuery).trim();
+        String meaningQuery = foldMeaning(rawQuery).trim();
+        if (wordQuery.isEmpty() || entries.length == 0) return;
+
+        // Exact matches first, then prefixes: contiguous range in the sorted key array
+        int start = lowerBound(wordQuery);
+        for (int i = start; i < sortedKeys.length && sortedKeys[i].equals(wordQuery); i++) {
+            offerOnce(top, matched, idOffset + sortedIds[i], SCORE_EXACT);
+        }
+        for (int i = start; i < sortedKeys.length && sortedKeys[i].startsWith(wordQuery); i++) {
+            offerOnce(top, matched, idOffset + sortedIds[i], SCORE_PREFIX);
+        }
+
+        // Reverse lookup: the query is a whole word of the meaning, i.e. a translation
+        int word = meaningWords.find(meaningQuery);
+        if (word >= 0) {
+            int[] postings = meaningWords.postings();
+            for (int i = meaningWords.start(word); i < meaningWords.end(word); i++) {
+                offerOnce(top, matched, idOffset + postings[i], SCORE_MEANING_WORD);
+            }
+        }
+
+        // Substring matches on the word
+        IntList wordCandidates = candidates(wordGrams, wordKeys, wordQuery);
+        for (int i = 0; i < wordCandidates.size; i++) {
+            int id = wordCandidates.items[i];
+            if (!matched.get(idOffset + id) && wordKeys[id].contains(wordQuery)) {
+                offerOnce(top, matched, idOffset + id, SCORE_WORD_CONTAINS);
+            }
+        }
+
+        // Misspelled words: one edit ranks above meaning matches, two edits below
+        IntList fuzzyIds = new IntList();
+        IntList fuzzyDistances = new IntList();
+        if (wordQuery.length() >= FUZZY_MIN_QUERY_LENGTH) {
+            int maxDistance = wordQuery.length() >= FUZZY_TWO_EDITS_LENGTH ? 2 : 1;
+            fuzzyWords.search(wordQuery, maxDistance, FUZZY_MAX_VISITS, fuzzyIds, fuzzyDistances);
+        }
+        for (int i = 0; i < fuzzyIds.size; i++) {
+            if (fuzzyDistances.items[i] <= 1) {
+                offerOnce(top, matched, idOffset + fuzzyIds.items[i], SCORE_FUZZY_CLOSE);
+            }
+        }
+
+        // Meaning matches only count when the word itself did not match
+        IntList meaningCandidates = candidates(meaningGrams, meaningKeys, meaningQuery);
+        for (int i = 0; i < meaningCandidates.size; i++) {
+            int id = meaningCandidates.items[i];
+            if (!matched.get(idOffset + id) && meaningKeys[id].contains(meaningQuery)) {
+                offerOnce(top, matched, idOffset + id, SCORE_MEANING_CONTAINS);
+            }
+        }
+
+        for (int i = 0; i < fuzzyIds.size; i++) {
+            offerOnce(top, matched, idOffset + fuzzyIds.items[i], SCORE_FUZZY_FAR);
+        }
+    }
+
+    private static void offerOnce(TopK top, BitSet matched, int id, int score) {
+        if (!matched.get(id)) {
+            matched.set(id);
+            top.offer(score, id);
+        }
+    }
+
+    private int lowerBound(String query) {
+        int lo = 0;
+        int hi = sortedKeys.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sortedKeys[mid].compareTo(query) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Candidate ids that may contain the query. Queries shorter than a trigram fall
+     * back to checking every key; those are cheap since the keys are precomputed.
+     */
+    private IntList candidates(GramTable grams, String[] keys, String query) {
+        IntList result = new IntList();
+        if (query.length() < GramTable.GRAM_SIZE) {
+            for (int id = 0; id < keys.length; id++) {
+                if (keys[id].contains(query)) result.add(id);
+            }
+            return result;
+        }
+
+        // Start from the rarest gram and intersect the rest into it
+        int gramCount = query.length() - GramTable.GRAM_SIZE + 1;
+        int[] slots = new int[gramCount];
+        int smallest = -1;
+        for (int i = 0; i < gramCount; i++) {
+            slots[i] = grams.find(GramTable.pack(query, i));
+            if (slots[i] < 0) return result;
+            if (smallest < 0 || size(grams, slots[i]) < size(grams, smallest)) smallest = slots[i];
+        }
+
+        int[] postings = grams.postings();
+        for (int p = grams.start(smallest); p < grams.end(smallest); p++) {
+            int id = postings[p];
+            boolean inAll = true;
+            for (int i = 0; i < gramCount && inAll; i++) {
+                inAll = Arrays.binarySearch(postings, grams.start(slots[i]), grams.end(slots[i]), id) >= 0;
+            }
+            if (inAll) result.add(id);
+        }
+        return result;
+    }
+
+    private String foldWord(String value) {
+        return DictionaryTables.foldWord(value, isEnglish);
+    }
+
+    private String foldMeaning(String value) {
+        return DictionaryTables.foldMeaning(value, isEnglish);
+    }
+
+    private static DictionaryEntry[] toArray(List<DictionaryEntry> source) {
+        return source != null ? source.toArray(new DictionaryEntry[0]) : new DictionaryEntry[0];
+    }
+
+    private static int size(GramTable grams, int slot) {
+        return grams.end(slot) - grams.start(slot);
+    }
+
+    /**
+     * Bounded min-heap keeping the best entries seen so far. Score and id are packed
+     * into one long (higher score first, then lower id), so ranking never boxes or
+     * looks anything up.
+     */
+    static final class TopK {
+        private final long[] heap;
+        private int size;
+
+        TopK(int capacity) {
+            heap = new long[capacity];
+        }
+
+        void offer(int score, int id) {
+            long key = ((long) score << 32) | (Integer.MAX_VALUE - id);
+            if (size < heap.length) {
+                heap[size] = key;
+                siftUp(size++);
+            } else if (heap.length > 0 && key > heap[0]) {
+                heap[0] = key;
+                siftDown(0);
+            }
+        }
+
+        long[] sortedDescending() {
+            long[] sorted = Arrays.copyOf(heap, size);
+            Arrays.sort(sorted);
+            for (int i = 0, j = sorted.length - 1; i < j; i++, j--) {
+                long tmp = sorted[i];
+                sorted[i] = sorted[j];
+                sorted[j] = tmp;
+            }
+            return sorted;
+        }
+
+        static int idOf(long key) {
+            return Integer.MAX_VALUE - (int) key;
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (heap[parent] <= heap[i]) break;
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int left = 2 * i + 1;
+                if (left >= size) break;
+                int smallest = left + 1 < size && heap[left + 1] < heap[left] ? left + 1 : left;
+                if (heap[i] <= heap[smallest]) break;
+                swap(i, smallest);
+                i = smallest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            long tmp = heap[a];
+            heap[a] = heap[b];
+            heap[b] = tmp;
+        }
+    }
+
+    // Growable int array to avoid boxing on the query path
+    static final class IntList {
+        int[] items = new int[16];
+        int size;
+
+        void add(int value) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
+            }
+            items[size++] = value;
+        }
+    }
+}
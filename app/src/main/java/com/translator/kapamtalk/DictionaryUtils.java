@@ -1,30 +1,105 @@
 package com.translator.kapamtalk;
 
 import android.content.Context;
-import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
-import java.io.InputStream;
-import java.lang.reflect.Type;
+import android.content.res.AssetFileDescriptor;
+import android.util.Log;
+
+import com.google.gson.stream.JsonReader;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 
 public class DictionaryUtils {
+    private static final String TAG = "DictionaryUtils";
+
+    // Entries handed out early so searches can start before the whole file is parsed
+    private static final int FIRST_PAGE_SIZE = 200;
+    private static final int READ_BUFFER_SIZE = 8192;
+
+    public interface OnFirstPageLoadedListener {
+        void onFirstPageLoaded(List<DictionaryEntry> firstPage);
+    }
+
     public static List<DictionaryEntry> loadDictionaryData(Context context, boolean isEnglish) {
-        try {
-            // Choose file based on selected language
-            String filename = isEnglish ? "dictionary_english.json" : "dictionary_kapampangan.json";
-            InputStream is = context.getAssets().open(filename);
-            int size = is.available();
-            byte[] buffer = new byte[size];
-            is.read(buffer);
-            is.close();
-            String json = new String(buffer, "UTF-8");
-            Gson gson = new Gson();
-            Type listType = new TypeToken<List<DictionaryEntry>>(){}.getType();
-            return gson.fromJson(json, listType);
+        return loadDictionaryData(context, isEnglish, null);
+    }
+
+    /**
+     * Streams the dictionary asset entry by entry. Only a fixed-size read buffer is
+     * held besides the parsed entries, regardless of how large the file grows.
+     */
+    public static List<DictionaryEntry> loadDictionaryData(Context context, boolean isEnglish,
+                                                           OnFirstPageLoadedListener listener) {
+        // Choose file based on selected language
+        String filename = baseName(isEnglish) + ".json";
+        List<DictionaryEntry> entries = new ArrayList<>();
+
+        try (JsonReader reader = new JsonReader(new BufferedReader(
+                new InputStreamReader(context.getAssets().open(filename), StandardCharsets.UTF_8),
+                READ_BUFFER_SIZE))) {
+            reader.beginArray();
+            while (reader.hasNext()) {
+                entries.add(DictionaryJson.readEntry(reader));
+                if (listener != null && entries.size() == FIRST_PAGE_SIZE) {
+                    listener.onFirstPageLoaded(new ArrayList<>(entries));
+                }
+            }
+            reader.endArray();
         } catch (Exception e) {
-            e.printStackTrace();
-            return new ArrayList<>();
+            Log.e(TAG, "Error loading " + filename + " after " + entries.size() + " entries", e);
+        }
+
+        ((ArrayList<DictionaryEntry>) entries).trimToSize();
+        return entries;
+    }
+
+    public static DictionaryIndex loadDictionaryIndex(Context context, boolean isEnglish) {
+        return loadDictionaryIndex(context, isEnglish, null);
+    }
+
+    /**
+     * Opens the dictionary compiled at build time, which carries its search tables, and
+     * builds the index from it. Falls back to streaming the JSON asset, in which case the
+     * listener gets the first page as soon as it is parsed, before the index is built.
+     */
+    public static DictionaryIndex loadDictionaryIndex(Context context, boolean isEnglish,
+                                                      OnFirstPageLoadedListener listener) {
+        DictionaryFormat.Compiled compiled = loadCompiledDictionary(context, isEnglish);
+        if (compiled != null) {
+            return new DictionaryIndex(compiled.entries, compiled.isEnglish, compiled.tables);
         }
+        return new DictionaryIndex(loadDictionaryData(context, isEnglish, listener), isEnglish);
+    }
+
+    // The .kdict asset is stored uncompressed, so it can be mapped straight from the APK
+    private static DictionaryFormat.Compiled loadCompiledDictionary(Context context, boolean isEnglish) {
+        String filename = baseName(isEnglish) + ".kdict";
+        try (AssetFileDescriptor afd = context.getAssets().openFd(filename);
+             FileInputStream fis = afd.createInputStream();
+             FileChannel channel = fis.getChannel()) {
+            DictionaryFormat.Compiled compiled = DictionaryFormat.read(channel.map(
+                    FileChannel.MapMode.READ_ONLY, afd.getStartOffset(), afd.getLength()));
+            if (compiled.isEnglish != isEnglish) {
+                throw new IOException(filename + " holds the other language");
+            }
+            return compiled;
+        } catch (FileNotFoundException e) {
+            // Not packaged, e.g. when the build step was skipped; the JSON is still there
+            return null;
+        } catch (IOException | RuntimeException e) {
+            Log.e(TAG, "Error reading " + filename + ", using the JSON instead", e);
+            return null;
+        }
+    }
+
+    private static String baseName(boolean isEnglish) {
+        return isEnglish ? "dictionary_english" : "dictionary_kapampangan";
     }
 }
@@ -0,0 +1,97 @@
+package com.translator.kapamtalk;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Helpers shared by the on-disk caches: content-addressed file names, scratch files for
+ * downloads in progress and least-recently-used trimming based on file modification times.
+ */
+public class DiskCacheUtils {
+
+    public static final String PARTIAL_EXTENSION = ".part";
+
+    // Names this process's scratch files, so sweeping an earlier process's leftovers
+    // never deletes a download that is still being written
+    private static final String PROCESS_TAG = Long.toHexString(new SecureRandom().nextLong());
+
+    public static String sha256Hex(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(value.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                sb.append(Character.forDigit((b >> 4) & 0xF, 16));
+                sb.append(Character.forDigit(b & 0xF, 16));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 is guaranteed on Android; fall back to something stable anyway
+            return Integer.toHexString(value.hashCode());
+        }
+    }
+
+    /**
+     * Marks a cached file as recently used so trimming evicts it last.
+     */
+    public static void touch(File file) {
+        file.setLastModified(System.currentTimeMillis());
+    }
+
+    /**
+     * A scratch file in dir to download into, renamed into place once complete.
+     */
+    public static File createPartialFile(File dir, String key) throws IOException {
+        return File.createTempFile(PROCESS_TAG + "_" + key + "_", PARTIAL_EXTENSION, dir);
+    }
+
+    /**
+     * Deletes scratch files left behind by downloads an earlier process did not finish.
+     */
+    public static void deleteStalePartialFiles(File dir) {
+        File[] partials = dir.listFiles((d, name) ->
+                name.endsWith(PARTIAL_EXTENSION) && !name.startsWith(PROCESS_TAG + "_"));
+        if (partials == null) return;
+        for (File partial : partials) {
+            partial.delete();
+        }
+    }
+
+    /**
+     * Deletes files older than maxAgeMs, then the least recently used ones until the
+     * directory holds at most maxBytes. A maxAgeMs of 0 disables the age limit. Scratch
+     * files of downloads in progress are neither counted nor deleted.
+     */
+    public static void trimDirectory(File dir, long maxBytes, long maxAgeMs) {
+        File[] files = dir.listFiles((d, name) -> !name.endsWith(PARTIAL_EXTENSION));
+        if (files == null) return;
+
+        long now = System.currentTimeMillis();
+        long total = 0;
+        for (File file : files) {
+            if (maxAgeMs > 0 && now - file.lastModified() > maxAgeMs) {
+                file.delete();
+            } else {
+                total += file.length();
+            }
+        }
+        if (total <= maxBytes) return;
+
+        files = dir.listFiles((d, name) -> !name.endsWith(PARTIAL_EXTENSION));
+        if (files == null) return;
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+        for (File file : files) {
+            if (total <= maxBytes) break;
+            long length = file.length();
+            if (file.delete()) {
+                total -= length;
+            }
+        }
+    }
+}
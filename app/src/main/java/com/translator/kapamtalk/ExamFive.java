@@ -6,9 +6,6 @@ import android.content.Intent;
 import android.content.SharedPreferences;
 import android.content.res.ColorStateList;
 import android.graphics.Color;
-import android.media.AudioAttributes;
-import android.media.MediaPlayer;
-import android.media.MediaRecorder;
 import android.net.ConnectivityManager;
 import android.net.Network;
 import android.net.NetworkCapabilities;
@@ -34,8 +31,6 @@ import androidx.annotation.NonNull;
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.view.GestureDetectorCompat;
-import com.android.volley.RequestQueue;
-import com.android.volley.toolbox.Volley;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
@@ -44,7 +39,6 @@ import com.google.firebase.database.DatabaseError;
 import com.google.firebase.database.DatabaseReference;
 import com.google.firebase.database.FirebaseDatabase;
 import com.google.firebase.database.ValueEventListener;
-import java.io.File;
 import java.io.IOException;
 import java.lang.ref.WeakReference;
 import java.net.HttpURLConnection;
@@ -57,17 +51,8 @@ import java.util.Map;
 import java.util.Random;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
-import com.android.volley.AuthFailureError;
-import com.android.volley.NetworkResponse;
-import com.android.volley.Request;
-import com.android.volley.Response;
-import com.android.volley.toolbox.HttpHeaderParser;
 import org.json.JSONException;
-import org.json.JSONObject;
-import com.android.volley.DefaultRetryPolicy;
 
-import java.io.ByteArrayOutputStream;
-import java.io.FileInputStream;
 import androidx.core.app.ActivityCompat;
 import androidx.core.content.ContextCompat;
 import android.Manifest;
@@ -84,10 +69,7 @@ public class ExamFive extends AppCompatActivity {
     private static final int TOTAL_QUESTIONS = 5;
     private static final int PASSING_SCORE = 70; // 70% to pass
     private static final int REQUEST_RECORD_AUDIO_PERMISSION = 200;
-    private static final String FLASK_BASE_URL = "https://coco-18-kapamtalk.hf.space";
-    private static final String FLASK_EVALUATE_ENDPOINT = "/evaluate";
     private static final int MINIMUM_RECORDING_DURATION_MS = 1000; // 1 second minimum
-    private static final long MINIMUM_FILE_SIZE_BYTES = 1000; // 1KB minimum
 
     // Firebase components
     private FirebaseAuth auth;
@@ -117,11 +99,10 @@ public class ExamFive extends AppCompatActivity {
     private ImageView completionCheckMark;
 
     // Audio components
-    private MediaPlayer mediaPlayer;
-    private MediaRecorder mediaRecorder;
-    private String audioFilePath;
+    private AudioPlaybackEngine.Playback playback;
+    private PcmRecorder recorder;
+    private PcmRecorder.Recording lastRecording;
     private boolean isRecording = false;
-    private long recordingStartTime = 0;
 
     // Dialog components - using WeakReference to prevent memory leaks
     private WeakReference<AlertDialog> noInternetDialogRef;
@@ -145,7 +126,7 @@ public class ExamFive extends AppCompatActivity {
     // Added to prevent duplicate processing
     private long lastFetchTimestamp = 0;
 
-    private RequestQueue requestQueue;
+    private PronunciationEvaluator pronunciationEvaluator;
     // Background task executor
     private final Executor backgroundExecutor = Executors.newSingleThreadExecutor();
     // Handler for main thread operations
@@ -161,8 +142,8 @@ public class ExamFive extends AppCompatActivity {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.examfive);
 
-        // Initialize Volley RequestQueue
-        requestQueue = Volley.newRequestQueue(this);
+        // Takes are scored by the Flask /evaluate endpoint
+        pronunciationEvaluator = new PronunciationEvaluator(this);
 
         initializeComponents();
         requestMicrophonePermission();
@@ -192,16 +173,6 @@ public class ExamFive extends AppCompatActivity {
             Log.w(TAG, "loadingProgressBar not found in layout");
         }
 
-        // Initialize audio file path
-        File audioDir = new File(getExternalFilesDir(null), "audio_records");
-        if (!audioDir.exists()) {
-            boolean dirCreated = audioDir.mkdirs();
-            if (!dirCreated) {
-                Log.w(TAG, "Failed to create audio directory");
-            }
-        }
-        audioFilePath = new File(audioDir, "recorded_audio.m4a").getAbsolutePath();
-
         // Fetch exam items from Firebase
         fetchExamItemsFromFirebase();
     }
@@ -277,6 +248,9 @@ public class ExamFive extends AppCompatActivity {
                     // Sort by sortOrder if available
                     Collections.sort(allBodyPartItems, (a, b) -> a.getSortOrder() - b.getSortOrder());
 
+                    // Download the pronunciations in the background so playback starts from disk
+                    PronunciationAudioCache.getInstance(ExamFive.this).prefetch(allBodyPartItems, BodyPartItem::getAudioUrl);
+
                     // Check if the number of items has changed
                     boolean hasNewItems = currentItemCount != lastItemCount;
 
@@ -607,8 +581,16 @@ public class ExamFive extends AppCompatActivity {
                 if (isRecording) {
                     stopRecording();
 
-                    // Calculate recording duration
-                    long recordingDuration = System.currentTimeMillis() - recordingStartTime;
+                    // The microphone failed part way through the take
+                    if (lastRecording == null) {
+                        tvFeedback.setVisibility(View.VISIBLE);
+                        tvFeedback.setTextColor(getResources().getColor(android.R.color.holo_red_dark));
+                        tvFeedback.setText("Error recording audio. Please try again.");
+                        return true;
+                    }
+
+                    // Duration of the audio actually captured
+                    long recordingDuration = lastRecording.getDurationMs();
 
                     // Check if recording is too short
                     if (recordingDuration < MINIMUM_RECORDING_DURATION_MS) {
@@ -632,8 +614,8 @@ public class ExamFive extends AppCompatActivity {
             return;
         }
 
-        // Always release previous MediaPlayer to prevent leaks
-        releaseMediaPlayer();
+        // Stop the previous clip before starting the next one
+        stopPlayback();
 
         try {
             // Get URL instead of resource ID
@@ -646,16 +628,6 @@ public class ExamFive extends AppCompatActivity {
                 return;
             }
 
-            // Create MediaPlayer with URL instead of resource ID
-            mediaPlayer = new MediaPlayer();
-
-            // Set audio attributes
-            AudioAttributes attributes = new AudioAttributes.Builder()
-                    .setContentType(AudioAttributes.CONTENT_TYPE_MUSIC)
-                    .setUsage(AudioAttributes.USAGE_MEDIA)
-                    .build();
-            mediaPlayer.setAudioAttributes(attributes);
-
             // Store original background tint for restoration later
             final ColorStateList originalBackgroundTint = btnListen.getBackgroundTintList();
 
@@ -664,35 +636,44 @@ public class ExamFive extends AppCompatActivity {
             // Make sure text remains visible by setting it to white or contrasting color
             btnListen.setTextColor(Color.WHITE);
 
-            // Show loading toast
-            showToast("Loading audio...");
+            // Play the downloaded copy when there is one, otherwise stream the URL
+            PronunciationAudioCache audioCache = PronunciationAudioCache.getInstance(this);
+            if (audioCache.getCachedFile(audioUrl) == null) {
+                // Show loading toast
+                showToast("Loading audio...");
+            }
 
-            // Set data source to the URL and prepare asynchronously
-            mediaPlayer.setDataSource(audioUrl);
-            mediaPlayer.setOnPreparedListener(mp -> {
-                mp.start();
-            });
+            // The player comes from the shared pool and starts once the clip is prepared
+            playback = AudioPlaybackEngine.getInstance(this).play(this, audioCache.resolve(audioUrl),
+                    AudioPlaybackEngine.PRIORITY_PRONUNCIATION, new AudioPlaybackEngine.Listener() {
+                        @Override
+                        public void onComplete() {
+                            playback = null;
 
-            mediaPlayer.setOnErrorListener((mp, what, extra) -> {
-                Log.e(TAG, "Media player error: " + what + ", " + extra);
-                showToast("Error playing audio. Please try again.");
-                btnListen.setBackgroundTintList(originalBackgroundTint);
-                btnListen.setTextColor(Color.BLACK);
-                releaseMediaPlayer();
-                return true;
-            });
+                            // Vibrate slightly to indicate playback finished
+                            vibrate(50);
 
-            mediaPlayer.setOnCompletionListener(mp -> {
-                // Vibrate slightly to indicate playback finished
-                vibrate(50);
+                            // Restore original button state
+                            btnListen.setBackgroundTintList(originalBackgroundTint);
+                            btnListen.setTextColor(Color.BLACK); // Or your default text color
+                        }
 
-                // Restore original button state
-                btnListen.setBackgroundTintList(originalBackgroundTint);
-                btnListen.setTextColor(Color.BLACK); // Or your default text color
-            });
+                        @Override
+                        public void onError(int what, int extra) {
+                            Log.e(TAG, "Media player error: " + what + ", " + extra);
+                            playback = null;
+                            showToast("Error playing audio. Please try again.");
+                            btnListen.setBackgroundTintList(originalBackgroundTint);
+                            btnListen.setTextColor(Color.BLACK);
+                        }
 
-            // Start preparing the player
-            mediaPlayer.prepareAsync();
+                        @Override
+                        public void onStopped() {
+                            playback = null;
+                            btnListen.setBackgroundTintList(originalBackgroundTint);
+                            btnListen.setTextColor(Color.BLACK);
+                        }
+                    });
 
         } catch (Exception e) {
             Log.e(TAG, "Error playing pronunciation: " + e.getMessage(), e);
@@ -716,9 +697,6 @@ public class ExamFive extends AppCompatActivity {
             return;
         }
 
-        // Record the start time
-        recordingStartTime = System.currentTimeMillis();
-
         // Vibrate to indicate recording started
         vibrate(100);
 
@@ -727,49 +705,17 @@ public class ExamFive extends AppCompatActivity {
         tvRecordingInstructions.setText("Recording... Release to stop");
 
         // Ensure previous recorder is released
-        releaseMediaRecorder();
+        releaseRecorder();
+        lastRecording = null;
 
-        // Initialize recorder
-        mediaRecorder = new MediaRecorder();
-        try {
-            // Delete previous recording if exists
-            File file = new File(audioFilePath);
-            if (file.exists()) {
-                boolean deleted = file.delete();
-                if (!deleted) {
-                    Log.w(TAG, "Could not delete previous recording file");
-                }
-            }
-
-            // Ensure parent directory exists
-            File parent = file.getParentFile();
-            if (parent != null && !parent.exists()) {
-                boolean created = parent.mkdirs();
-                if (!created) {
-                    Log.w(TAG, "Could not create parent directories for recording");
-                }
-            }
-
-            mediaRecorder.setAudioSource(MediaRecorder.AudioSource.MIC);
-            mediaRecorder.setOutputFormat(MediaRecorder.OutputFormat.MPEG_4);
-            mediaRecorder.setAudioEncoder(MediaRecorder.AudioEncoder.AAC);
-            mediaRecorder.setAudioSamplingRate(16000);
-            mediaRecorder.setOutputFile(audioFilePath);
-            mediaRecorder.prepare();
-            mediaRecorder.start();
+        // Capture 16 kHz PCM into memory; it is encoded and uploaded from memory as well
+        recorder = new PcmRecorder();
+        if (recorder.start()) {
             isRecording = true;
-        } catch (IOException e) {
-            Log.e(TAG, "Failed to start recording", e);
+        } else {
+            Log.e(TAG, "Failed to start recording");
             showToast("Failed to start recording");
-            releaseMediaRecorder();
-        } catch (IllegalStateException e) {
-            Log.e(TAG, "MediaRecorder in illegal state", e);
-            showToast("Recording error. Please try again.");
-            releaseMediaRecorder();
-        } catch (Exception e) {
-            Log.e(TAG, "Unexpected error when recording", e);
-            showToast("Recording error. Please try again.");
-            releaseMediaRecorder();
+            releaseRecorder();
         }
     }
 
@@ -785,15 +731,8 @@ public class ExamFive extends AppCompatActivity {
         fabRecord.setImageTintList(ColorStateList.valueOf(getResources().getColor(android.R.color.white)));
         tvRecordingInstructions.setText("Tap and hold to record your Kapampangan translation");
 
-        try {
-            mediaRecorder.stop();
-        } catch (IllegalStateException e) {
-            Log.e(TAG, "Failed to stop recording - IllegalStateException", e);
-        } catch (Exception e) {
-            Log.e(TAG, "Failed to stop recording", e);
-        } finally {
-            releaseMediaRecorder();
-        }
+        lastRecording = recorder.stop();
+        releaseRecorder();
     }
 
     private void showProgressDialog(String message) {
@@ -835,9 +774,7 @@ public class ExamFive extends AppCompatActivity {
         });
     }
 
-    private void sendAudioToFlask(String audioFilePath, String language) {
-        String fullUrl = FLASK_BASE_URL + FLASK_EVALUATE_ENDPOINT;
-
+    private void sendAudioToFlask(PcmRecorder.Recording recording, String language) {
         // Get the current body part's reference locator
         final String referenceLocator;
         if (currentQuestionIndex < bodyPartItems.size()) {
@@ -855,168 +792,45 @@ public class ExamFive extends AppCompatActivity {
             return;
         }
 
-        // Check audio file before attempting to send
-        File audioFile = new File(audioFilePath);
-        if (!audioFile.exists() || audioFile.length() < MINIMUM_FILE_SIZE_BYTES) {
-            Log.e(TAG, "Audio file does not exist or is too small: " + audioFilePath);
-            tvFeedback.setVisibility(View.VISIBLE);
-            tvFeedback.setTextColor(getResources().getColor(android.R.color.holo_red_dark));
-            tvFeedback.setText("Recording too short! Please try again.");
-            return;
-        }
-
         // Show progress dialog with custom message
         showProgressDialog("Evaluating your translation...");
 
-        VolleyMultipartRequest multipartRequest = new VolleyMultipartRequest(
-                Request.Method.POST,
-                fullUrl,
-                response -> {
-                    // Dismiss the dialog when response is received
-                    dismissProgressDialog();
-
-                    try {
-                        String responseData = new String(response.data);
-                        JSONObject jsonResponse = new JSONObject(responseData);
-
-                        // Extract evaluation results
-                        boolean isCorrect = jsonResponse.getBoolean("is_correct");
-                        double score = jsonResponse.getDouble("score");
-                        String feedback = jsonResponse.getString("feedback");
-
-                        Log.i(TAG, "Pronunciation evaluation: Score=" + score +
-                                ", Correct=" + isCorrect + ", Feedback=" + feedback);
-
-                        // Process the evaluation result - now passing the score
-                        processEvaluationResult(isCorrect, feedback, score);
-
-                    } catch (JSONException e) {
-                        Log.e(TAG, "Error parsing evaluation response", e);
-                        tvFeedback.setVisibility(View.VISIBLE);
-                        tvFeedback.setTextColor(getResources().getColor(android.R.color.holo_red_dark));
-                        tvFeedback.setText("Server response error. Please try again later.");
-                        showToast("Error processing evaluation");
-                    }
-                },
-                error -> {
-                    // Dismiss the dialog on error too
-                    dismissProgressDialog();
-
-                    Log.e(TAG, "Evaluation request failed: " + error.toString(), error);
-                    tvFeedback.setVisibility(View.VISIBLE);
-                    tvFeedback.setTextColor(getResources().getColor(android.R.color.holo_red_dark));
-
-                    // Check if it's a network connectivity issue
-                    if (!isNetworkConnected()) {
-                        tvFeedback.setText("Internet connection required. Please connect to the internet and try again.");
-                        showToast("Internet connection required");
-                    } else {
-                        tvFeedback.setText("Server error. Please try again later.");
-                        showToast("Error connecting to server");
-                    }
-                }
-        ) {
+        pronunciationEvaluator.evaluate(recording, language, referenceLocator, TAG,
+                new PronunciationEvaluator.Callback() {
             @Override
-            protected Map<String, String> getParams() {
-                Map<String, String> params = new HashMap<>();
-                params.put("language", language);
-                params.put("reference_locator", referenceLocator);
-                return params;
-            }
+            public void onEvaluated(PronunciationEvaluator.Result result) {
+                // Dismiss the dialog when the result is in
+                dismissProgressDialog();
 
-            @Override
-            protected Map<String, DataPart> getByteData() {
-                Map<String, DataPart> params = new HashMap<>();
-                try {
-                    File audioFile = new File(audioFilePath);
-                    if (!audioFile.exists() || !audioFile.canRead()) {
-                        Log.e(TAG, "Audio file does not exist or cannot be read: " + audioFilePath);
-                        return params;
-                    }
+                Log.i(TAG, "Pronunciation evaluation: Score=" + result.getScore() +
+                        ", Correct=" + result.isCorrect() + ", Feedback=" + result.getFeedback());
 
-                    byte[] fileData = readFileToByteArray(audioFile);
-                    params.put("audio", new DataPart("audio.wav", fileData, "audio/wav"));
-                } catch (IOException e) {
-                    Log.e(TAG, "Error reading audio file", e);
-                }
-                return params;
-            }
-
-            @Override
-            public String getBodyContentType() {
-                return "multipart/form-data; boundary=" + boundary;
+                // Process the evaluation result - now passing the score
+                processEvaluationResult(result.isCorrect(), result.getFeedback(), result.getScore());
             }
 
-            private final String boundary = "apiclient-" + System.currentTimeMillis();
-            private final String lineEnd = "\r\n";
-            private final String twoHyphens = "--";
-
             @Override
-            public byte[] getBody() throws AuthFailureError {
-                ByteArrayOutputStream bos = new ByteArrayOutputStream();
-                try {
-                    // Add string params
-                    Map<String, String> params = getParams();
-                    if (params != null && params.size() > 0) {
-                        textParse(bos, params);
-                    }
+            public void onError(Exception error) {
+                // Dismiss the dialog on error too
+                dismissProgressDialog();
 
-                    // Add data byte params
-                    Map<String, DataPart> data = getByteData();
-                    if (data != null && data.size() > 0) {
-                        dataParse(bos, data);
-                    }
-
-                    // Close multipart form data
-                    bos.write((twoHyphens + boundary + twoHyphens + lineEnd).getBytes());
-
-                    return bos.toByteArray();
-                } catch (IOException e) {
-                    Log.e(TAG, "Error creating request body", e);
-                    return null;
-                } finally {
-                    try {
-                        bos.close();
-                    } catch (IOException e) {
-                        Log.e(TAG, "Error closing output stream", e);
-                    }
-                }
-            }
-
-            private void textParse(ByteArrayOutputStream bos, Map<String, String> params) throws IOException {
-                for (Map.Entry<String, String> entry : params.entrySet()) {
-                    bos.write((twoHyphens + boundary + lineEnd).getBytes());
-                    bos.write(("Content-Disposition: form-data; name=\"" + entry.getKey() + "\"" + lineEnd).getBytes());
-                    bos.write(lineEnd.getBytes());
-                    bos.write(entry.getValue().getBytes());
-                    bos.write(lineEnd.getBytes());
-                }
-            }
-
-            private void dataParse(ByteArrayOutputStream bos, Map<String, DataPart> data) throws IOException {
-                for (Map.Entry<String, DataPart> entry : data.entrySet()) {
-                    DataPart dp = entry.getValue();
-                    bos.write((twoHyphens + boundary + lineEnd).getBytes());
-                    bos.write(("Content-Disposition: form-data; name=\"" +
-                            entry.getKey() + "\"; filename=\"" + dp.getFileName() + "\"" + lineEnd).getBytes());
-                    if (dp.getType() != null && !dp.getType().isEmpty()) {
-                        bos.write(("Content-Type: " + dp.getType() + lineEnd).getBytes());
-                    }
-                    bos.write((lineEnd).getBytes());
+                Log.e(TAG, "Evaluation failed: " + error.toString(), error);
+                tvFeedback.setVisibility(View.VISIBLE);
+                tvFeedback.setTextColor(getResources().getColor(android.R.color.holo_red_dark));
 
-                    bos.write(dp.getContent());
-                    bos.write(lineEnd.getBytes());
+                if (error instanceof JSONException) {
+                    tvFeedback.setText("Server response error. Please try again later.");
+                    showToast("Error processing evaluation");
+                } else if (!isNetworkConnected()) {
+                    // Check if it's a network connectivity issue
+                    tvFeedback.setText("Internet connection required. Please connect to the internet and try again.");
+                    showToast("Internet connection required");
+                } else {
+                    tvFeedback.setText("Server error. Please try again later.");
+                    showToast("Error connecting to server");
                 }
             }
-        };
-
-        // Set a longer timeout for the request (3 minutes)
-        multipartRequest.setRetryPolicy(new DefaultRetryPolicy(
-                180000,
-                DefaultRetryPolicy.DEFAULT_MAX_RETRIES,
-                DefaultRetryPolicy.DEFAULT_BACKOFF_MULT));
-
-        requestQueue.add(multipartRequest);
+        });
     }
 
     private void processEvaluationResult(boolean isCorrect, String feedback, double score) {
@@ -1076,19 +890,39 @@ public class ExamFive extends AppCompatActivity {
         // Cancel any pending auto advance
         autoAdvanceHandler.removeCallbacksAndMessages(null);
 
-        // Check if audio file exists and has meaningful content before sending
-        File audioFile = new File(audioFilePath);
-        if (!audioFile.exists() || audioFile.length() < MINIMUM_FILE_SIZE_BYTES) {
-            Log.e(TAG, "Audio file does not exist or is too small: " + audioFilePath);
+        // Check that the take is long enough before sending
+        if (lastRecording == null || lastRecording.getDurationMs() < MINIMUM_RECORDING_DURATION_MS) {
+            Log.e(TAG, "Recording is missing or too short");
             tvFeedback.setVisibility(View.VISIBLE);
             tvFeedback.setTextColor(getResources().getColor(android.R.color.holo_red_dark));
             tvFeedback.setText("Recording too short! Please try again.");
             return;
         }
 
-        // Send the recording to the Flask API
-        String selectedLanguage = "kapampangan"; // Since this is a Kapampangan exam
-        sendAudioToFlask(audioFilePath, selectedLanguage);
+        // Silent, clipped or noisy takes are rejected here instead of after a server round trip.
+        // Screening reads the whole take, so it runs off the main thread.
+        PcmRecorder.Recording recording = lastRecording;
+        int questionIndex = currentQuestionIndex;
+        backgroundExecutor.execute(() -> {
+            PronunciationPrescreen.Result screening = PronunciationPrescreen.check(recording);
+            mainHandler.post(() -> {
+                // A newer take or another question makes this result irrelevant
+                if (isFinishing() || isDestroyed()
+                        || recording != lastRecording || questionIndex != currentQuestionIndex) return;
+
+                if (!screening.isAcceptable()) {
+                    Log.i(TAG, "Attempt rejected before evaluation: " + screening.getMessage());
+                    tvFeedback.setVisibility(View.VISIBLE);
+                    tvFeedback.setTextColor(getResources().getColor(android.R.color.holo_red_dark));
+                    tvFeedback.setText(screening.getMessage());
+                    return;
+                }
+
+                // Send the recording to the Flask API
+                String selectedLanguage = "kapampangan"; // Since this is a Kapampangan exam
+                sendAudioToFlask(recording, selectedLanguage);
+            });
+        });
     }
 
     // Enhanced version that includes the score in the dialog and shows correct translation
@@ -1232,32 +1066,6 @@ public class ExamFive extends AppCompatActivity {
         return totalScore / answeredCount;
     }
 
-    private byte[] readFileToByteArray(File file) throws IOException {
-        if (file == null || !file.exists()) {
-            throw new IOException("File not found: " + (file != null ? file.getAbsolutePath() : "null"));
-        }
-
-        FileInputStream fis = null;
-        ByteArrayOutputStream bos = null;
-
-        try {
-            fis = new FileInputStream(file);
-            bos = new ByteArrayOutputStream((int)file.length());
-            byte[] buffer = new byte[8192]; // Larger buffer for efficiency
-            int read;
-
-            while ((read = fis.read(buffer)) != -1) {
-                bos.write(buffer, 0, read);
-            }
-
-            return bos.toByteArray();
-        } finally {
-            // Close resources in finally block to ensure they're closed even if an exception occurs
-            closeQuietly(fis);
-            closeQuietly(bos);
-        }
-    }
-
     // Helper method to close streams quietly
     private void closeQuietly(AutoCloseable closeable) {
         if (closeable != null) {
@@ -1717,73 +1525,6 @@ public class ExamFive extends AppCompatActivity {
         userRef.child(userId).addValueEventListener(realTimeListener);
     }
 
-    public class VolleyMultipartRequest extends Request<NetworkResponse> {
-        private final Response.Listener<NetworkResponse> mListener;
-        private final Map<String, String> mParams;
-        private final Map<String, DataPart> mByteData;
-
-        public VolleyMultipartRequest(int method, String url,
-                                      Response.Listener<NetworkResponse> listener,
-                                      Response.ErrorListener errorListener) {
-            super(method, url, errorListener);
-            this.mListener = listener;
-            this.mParams = new HashMap<>();
-            this.mByteData = new HashMap<>();
-        }
-
-        @Override
-        protected Response<NetworkResponse> parseNetworkResponse(NetworkResponse response) {
-            return Response.success(response, HttpHeaderParser.parseCacheHeaders(response));
-        }
-
-        @Override
-        protected void deliverResponse(NetworkResponse response) {
-            mListener.onResponse(response);
-        }
-
-        @Override
-        public Map<String, String> getHeaders() throws AuthFailureError {
-            return super.getHeaders();
-        }
-
-        protected Map<String, String> getParams() {
-            return mParams;
-        }
-
-        protected Map<String, DataPart> getByteData() {
-            return mByteData;
-        }
-
-        public class DataPart {
-            private String fileName;
-            private byte[] content;
-            private String type;
-
-            public DataPart(String name, byte[] data) {
-                fileName = name;
-                content = data;
-            }
-
-            public DataPart(String name, byte[] data, String mimeType) {
-                fileName = name;
-                content = data;
-                type = mimeType;
-            }
-
-            public String getFileName() {
-                return fileName;
-            }
-
-            public byte[] getContent() {
-                return content;
-            }
-
-            public String getType() {
-                return type;
-            }
-        }
-    }
-
     private void loadExamProgress(String userId) {
         userRef.child(userId)
                 .child("examProgress")
@@ -2130,32 +1871,24 @@ public class ExamFive extends AppCompatActivity {
         }
     }
 
-    private void releaseMediaRecorder() {
-        if (mediaRecorder != null) {
-            try {
-                mediaRecorder.release();
-            } catch (Exception e) {
-                Log.e(TAG, "Error releasing media recorder", e);
-            }
-            mediaRecorder = null;
+    private void releaseRecorder() {
+        if (recorder != null) {
+            recorder.release();
+            recorder = null;
         }
         isRecording = false;
     }
 
-    private void releaseMediaPlayer() {
-        if (mediaPlayer != null) {
-            try {
-                mediaPlayer.release();
-            } catch (Exception e) {
-                Log.e(TAG, "Error releasing media player", e);
-            }
-            mediaPlayer = null;
+    private void stopPlayback() {
+        if (playback != null) {
+            playback.stop();
+            playback = null;
         }
     }
 
     private void releaseMediaResources() {
-        releaseMediaRecorder();
-        releaseMediaPlayer();
+        releaseRecorder();
+        stopPlayback();
     }
 
     private void showToast(String message) {
@@ -2233,9 +1966,9 @@ public class ExamFive extends AppCompatActivity {
         releaseMediaResources();
         dismissAllDialogs();
 
-        // Clean up volley request queue
-        if (requestQueue != null) {
-            requestQueue.cancelAll(TAG);
+        // Cancel this screen's pending evaluations
+        if (pronunciationEvaluator != null) {
+            pronunciationEvaluator.cancelAll(TAG);
         }
 
         super.onDestroy();
@@ -4,8 +4,6 @@ import android.content.Context;
 import android.content.Intent;
 import android.content.SharedPreferences;
 import android.graphics.Color;
-import android.media.AudioAttributes;
-import android.media.MediaPlayer;
 import android.net.ConnectivityManager;
 import android.net.Network;
 import android.net.NetworkCapabilities;
@@ -71,7 +69,7 @@ public class GreetingLesson extends AppCompatActivity {
     private ValueEventListener progressListener;
     private ValueEventListener greetingsListener;
     private boolean hasShownCongratulations = false;
-    private MediaPlayer mediaPlayer;
+    private AudioPlaybackEngine.Playback playback;
     private ProgressBar loadingProgressBar;
     private boolean greetingsLoaded = false;
 
@@ -193,6 +191,9 @@ public class GreetingLesson extends AppCompatActivity {
                     // Sort by sortOrder if available
                     Collections.sort(greetingItems, (a, b) -> a.getSortOrder() - b.getSortOrder());
 
+                    // Download the pronunciations in the background so playback starts from disk
+                    PronunciationAudioCache.getInstance(GreetingLesson.this).prefetch(greetingItems, GreetingItem::getAudioUrl);
+
                     greetingsLoaded = true;
 
                     // Log all current items for debugging
@@ -1027,8 +1028,8 @@ public class GreetingLesson extends AppCompatActivity {
             return;
         }
 
-        // Release any existing MediaPlayer
-        releaseMediaPlayer();
+        // Stop whatever this screen was playing
+        stopPlayback();
 
         // Find the speaker button in the current dialog
         ImageButton speakerButton = null;
@@ -1045,49 +1046,46 @@ public class GreetingLesson extends AppCompatActivity {
         }
 
         try {
-            // Create and prepare a new MediaPlayer with the URL
-            mediaPlayer = new MediaPlayer();
-
-            // Set proper audio attributes for streaming
-            AudioAttributes attributes = new AudioAttributes.Builder()
-                    .setContentType(AudioAttributes.CONTENT_TYPE_MUSIC)
-                    .setUsage(AudioAttributes.USAGE_MEDIA)
-                    .build();
-            mediaPlayer.setAudioAttributes(attributes);
-
-            // Set data source to the URL
-            mediaPlayer.setDataSource(audioUrl);
+            // Play the downloaded copy when there is one, otherwise stream the URL
+            PronunciationAudioCache audioCache = PronunciationAudioCache.getInstance(this);
+            boolean cached = audioCache.getCachedFile(audioUrl) != null;
 
             // Show loading indicator or message
-            showToast("Loading audio...");
-
-            // Prepare the player asynchronously
-            mediaPlayer.setOnPreparedListener(mp -> {
-                // Start playback when prepared
-                mp.start();
-            });
+            if (!cached) {
+                showToast("Loading audio...");
+            }
 
-            mediaPlayer.setOnErrorListener((mp, what, extra) -> {
-                // Handle playback errors
-                Log.e(TAG, "Media player error: " + what + ", " + extra);
-                showToast("Error playing audio. Please try again.");
-                if (finalSpeakerButton != null) {
-                    finalSpeakerButton.clearColorFilter();
-                }
-                releaseMediaPlayer();
-                return true;
-            });
+            // The player comes from the shared pool and starts once the clip is prepared
+            playback = AudioPlaybackEngine.getInstance(this).play(this, audioCache.resolve(audioUrl),
+                    AudioPlaybackEngine.PRIORITY_PRONUNCIATION, new AudioPlaybackEngine.Listener() {
+                        @Override
+                        public void onComplete() {
+                            // Reset button color when playback completes
+                            playback = null;
+                            if (finalSpeakerButton != null) {
+                                finalSpeakerButton.clearColorFilter();
+                            }
+                        }
 
-            mediaPlayer.setOnCompletionListener(mp -> {
-                // Reset button color when playback completes
-                if (finalSpeakerButton != null) {
-                    finalSpeakerButton.clearColorFilter();
-                }
-                releaseMediaPlayer();
-            });
+                        @Override
+                        public void onError(int what, int extra) {
+                            // Handle playback errors
+                            Log.e(TAG, "Media player error: " + what + ", " + extra);
+                            playback = null;
+                            showToast("Error playing audio. Please try again.");
+                            if (finalSpeakerButton != null) {
+                                finalSpeakerButton.clearColorFilter();
+                            }
+                        }
 
-            // Begin preparing the player
-            mediaPlayer.prepareAsync();
+                        @Override
+                        public void onStopped() {
+                            playback = null;
+                            if (finalSpeakerButton != null) {
+                                finalSpeakerButton.clearColorFilter();
+                            }
+                        }
+                    });
 
         } catch (Exception e) {
             Log.e(TAG, "Error playing audio from URL: " + e.getMessage(), e);
@@ -1095,22 +1093,14 @@ public class GreetingLesson extends AppCompatActivity {
                 finalSpeakerButton.clearColorFilter();
             }
             showToast("Error playing audio: " + e.getMessage());
-            releaseMediaPlayer();
+            stopPlayback();
         }
     }
 
-    private void releaseMediaPlayer() {
-        if (mediaPlayer != null) {
-            try {
-                if (mediaPlayer.isPlaying()) {
-                    mediaPlayer.stop();
-                }
-                mediaPlayer.release();
-            } catch (Exception e) {
-                Log.e(TAG, "Error releasing MediaPlayer", e);
-            } finally {
-                mediaPlayer = null;
-            }
+    private void stopPlayback() {
+        if (playback != null) {
+            playback.stop();
+            playback = null;
         }
     }
 
@@ -1287,7 +1277,7 @@ public class GreetingLesson extends AppCompatActivity {
 
     @Override
     protected void onDestroy() {
-        releaseMediaPlayer();
+        AudioPlaybackEngine.getInstance(this).stop(this);
 
         // Clean up Firebase listeners
         if (auth.getCurrentUser() != null && progressListener != null) {
@@ -0,0 +1,29 @@
+package com.translator.kapamtalk;
+
+import android.app.Application;
+
+public class KapamTalkApplication extends Application {
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        NetworkClient.getInstance(this).warmUp();
+        AudioPlaybackEngine.getInstance(this).warmUp();
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        DictionaryCache.getInstance(this).onTrimMemory(level);
+        if (level >= TRIM_MEMORY_BACKGROUND) {
+            AudioPlaybackEngine.getInstance(this).releasePool();
+        }
+    }
+
+    @Override
+    public void onLowMemory() {
+        super.onLowMemory();
+        DictionaryCache.getInstance(this).onTrimMemory(TRIM_MEMORY_COMPLETE);
+        AudioPlaybackEngine.getInstance(this).releasePool();
+    }
+}
@@ -0,0 +1,88 @@
+package com.translator.kapamtalk;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.android.volley.RequestQueue;
+import com.android.volley.toolbox.Volley;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * App-wide HTTP client for the Flask backend. One OkHttpClient (and one Volley queue
+ * on top of it) is shared by every screen so connections to the server are pooled,
+ * kept alive and multiplexed over HTTP/2 instead of being rebuilt per activity.
+ */
+public class NetworkClient {
+    private static final String TAG = "NetworkClient";
+
+    public static final String FLASK_BASE_URL = "https://coco-18-kapamtalk.hf.space";
+
+    private static final int MAX_IDLE_CONNECTIONS = 5;
+    private static final long KEEP_ALIVE_MINUTES = 5;
+    private static final long CONNECT_TIMEOUT_SECONDS = 15;
+    private static final long READ_TIMEOUT_SECONDS = 30;
+
+    private static NetworkClient instance;
+
+    private final OkHttpClient httpClient;
+    private final RequestQueue requestQueue;
+
+    private NetworkClient(Context context) {
+        httpClient = new OkHttpClient.Builder()
+                .connectionPool(new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_MINUTES, TimeUnit.MINUTES))
+                .connectTimeout(CONNECT_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .readTimeout(READ_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .retryOnConnectionFailure(true)
+                .build();
+        requestQueue = Volley.newRequestQueue(context.getApplicationContext(), new OkHttpStack(httpClient));
+    }
+
+    public static synchronized NetworkClient getInstance(Context context) {
+        if (instance == null) {
+            instance = new NetworkClient(context);
+        }
+        return instance;
+    }
+
+    public OkHttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    /**
+     * The shared Volley queue. Activities tag their requests and cancel by tag
+     * instead of stopping the queue.
+     */
+    public RequestQueue getRequestQueue() {
+        return requestQueue;
+    }
+
+    /**
+     * Opens a connection to the backend in the background so the first real request
+     * skips DNS, TCP and TLS setup.
+     */
+    public void warmUp() {
+        Request request = new Request.Builder().url(FLASK_BASE_URL).head().build();
+        httpClient.newCall(request).enqueue(new Callback() {
+            @Override
+            public void onFailure(@NonNull Call call, @NonNull IOException e) {
+                Log.d(TAG, "Warm-up request failed: " + e.getMessage());
+            }
+
+            @Override
+            public void onResponse(@NonNull Call call, @NonNull Response response) {
+                response.close();
+            }
+        });
+    }
+}
@@ -0,0 +1,198 @@
+package com.translator.kapamtalk;
+
+import android.annotation.SuppressLint;
+import android.media.AudioFormat;
+import android.media.AudioRecord;
+import android.media.MediaRecorder;
+import android.util.Log;
+
+/**
+ * Push-to-talk capture for the pronunciation exams. 16 kHz mono PCM is read with
+ * AudioRecord into a ring buffer in memory, and duration and signal level are tracked
+ * frame by frame, so a take can be judged as soon as the button is released. Nothing is
+ * written to disk; {@link PronunciationEvaluator} compresses and uploads the take from
+ * memory.
+ */
+public class PcmRecorder {
+    private static final String TAG = "PcmRecorder";
+
+    public static final int SAMPLE_RATE = 16000;
+    private static final int FRAME_MS = 20;
+    private static final int FRAME_SAMPLES = SAMPLE_RATE * FRAME_MS / 1000;
+    // Longer takes keep only their most recent part
+    private static final int MAX_SECONDS = 30;
+    private static final int CAPACITY = SAMPLE_RATE * MAX_SECONDS;
+    // Once the AudioRecord is stopped a read returns within a frame
+    private static final long JOIN_TIMEOUT_MS = 200;
+
+    private final short[] ring = new short[CAPACITY];
+    private final Object lock = new Object();
+    // Total samples captured; the ring holds the last min(total, CAPACITY) of them
+    private long totalSamples = 0;
+    private int peak = 0;
+
+    private AudioRecord audioRecord;
+    private Thread captureThread;
+    private volatile boolean capturing = false;
+    // Set when the microphone failed during the take
+    private volatile boolean failed = false;
+    private volatile double levelDbfs = -120.0;
+
+    /**
+     * A finished take: the captured samples in order, plus what was measured while recording.
+     */
+    public static class Recording {
+        private final short[] samples;
+        private final int peak;
+
+        Recording(short[] samples, int peak) {
+            this.samples = samples;
+            this.peak = peak;
+        }
+
+        public short[] getSamples() {
+            return samples;
+        }
+
+        public int getSampleRate() {
+            return SAMPLE_RATE;
+        }
+
+        public long getDurationMs() {
+            return samples.length * 1000L / SAMPLE_RATE;
+        }
+
+        // Loudest sample in dB relative to full scale
+        public double getPeakDbfs() {
+            return peak > 0 ? 20 * Math.log10(peak / 32768.0) : -120.0;
+        }
+    }
+
+    /**
+     * Starts capturing; returns false if the microphone could not be opened.
+     * The caller is responsible for holding the RECORD_AUDIO permission.
+     */
+    @SuppressLint("MissingPermission")
+    public boolean start() {
+        int minBuffer = AudioRecord.getMinBufferSize(SAMPLE_RATE,
+                AudioFormat.CHANNEL_IN_MONO, AudioFormat.ENCODING_PCM_16BIT);
+        if (minBuffer <= 0) return false;
+
+        try {
+            audioRecord = new AudioRecord(MediaRecorder.AudioSource.VOICE_RECOGNITION, SAMPLE_RATE,
+                    AudioFormat.CHANNEL_IN_MONO, AudioFormat.ENCODING_PCM_16BIT,
+                    Math.max(minBuffer, FRAME_SAMPLES * 2 * 8));
+            if (audioRecord.getState() != AudioRecord.STATE_INITIALIZED) {
+                release();
+                return false;
+            }
+            audioRecord.startRecording();
+        } catch (IllegalStateException | SecurityException e) {
+            Log.e(TAG, "Cannot start AudioRecord", e);
+            release();
+            return false;
+        }
+
+        capturing = true;
+        AudioRecord record = audioRecord;
+        captureThread = new Thread(() -> captureLoop(record), "exam-capture");
+        captureThread.start();
+        return true;
+    }
+
+    public boolean isRecording() {
+        return capturing;
+    }
+
+    // Live values for the take in progress
+    public long getDurationMs() {
+        synchronized (lock) {
+            return Math.min(totalSamples, CAPACITY) * 1000L / SAMPLE_RATE;
+        }
+    }
+
+    public double getLevelDbfs() {
+        return levelDbfs;
+    }
+
+    /**
+     * Stops the microphone and returns what was captured, or null if the microphone
+     * failed during the take.
+     */
+    public Recording stop() {
+        release();
+        if (failed) return null;
+        synchronized (lock) {
+            int length = (int) Math.min(totalSamples, CAPACITY);
+            short[] samples = new short[length];
+            int start = (int) ((totalSamples - length) % CAPACITY);
+            int firstPart = Math.min(length, CAPACITY - start);
+            System.arraycopy(ring, start, samples, 0, firstPart);
+            System.arraycopy(ring, 0, samples, firstPart, length - firstPart);
+            return new Recording(samples, peak);
+        }
+    }
+
+    /**
+     * Stops the microphone and discards the take.
+     */
+    public void release() {
+        capturing = false;
+        // Stopping first makes a blocked read return, so the join below is short
+        if (audioRecord != null) {
+            try {
+                audioRecord.stop();
+            } catch (IllegalStateException e) {
+                Log.w(TAG, "AudioRecord was not recording", e);
+            }
+        }
+        if (captureThread != null) {
+            try {
+                captureThread.join(JOIN_TIMEOUT_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (captureThread.isAlive()) {
+                Log.w(TAG, "Capture thread did not stop within " + JOIN_TIMEOUT_MS + " ms");
+            }
+            captureThread = null;
+        }
+        if (audioRecord != null) {
+            audioRecord.release();
+            audioRecord = null;
+        }
+    }
+
+    private void captureLoop(AudioRecord record) {
+        short[] frame = new short[FRAME_SAMPLES];
+        while (capturing) {
+            int read = record.read(frame, 0, frame.length);
+            if (read < 0) {
+                // ERROR_INVALID_OPERATION, ERROR_DEAD_OBJECT and friends do not recover;
+                // a read cut short by release() is not a failure
+                if (capturing) {
+                    Log.e(TAG, "AudioRecord.read failed with " + read);
+                    failed = true;
+                    capturing = false;
+                }
+                break;
+            }
+            if (read == 0) continue;
+
+            int framePeak = 0;
+            for (int i = 0; i < read; i++) {
+                framePeak = Math.max(framePeak, Math.abs(frame[i]));
+            }
+            levelDbfs = AudioPreprocessor.frameDbfs(frame, 0, read);
+
+            synchronized (lock) {
+                int position = (int) (totalSamples % CAPACITY);
+                int firstPart = Math.min(read, CAPACITY - position);
+                System.arraycopy(frame, 0, ring, position, firstPart);
+                System.arraycopy(frame, firstPart, ring, 0, read - firstPart);
+                totalSamples += read;
+                peak = Math.max(peak, framePeak);
+            }
+        }
+    }
+}
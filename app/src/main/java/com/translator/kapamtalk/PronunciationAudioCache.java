@@ -0,0 +1,160 @@
+package com.translator.kapamtalk;
+
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Response;
+
+/**
+ * Local copies of the lesson and exam pronunciation clips. Each screen hands over its
+ * item list as soon as it arrives from Firebase and the clips are downloaded a few at a
+ * time in the background, so tapping the speaker plays from disk, also when offline.
+ * On a metered connection only the first few items are fetched ahead of time.
+ */
+public class PronunciationAudioCache {
+    private static final String TAG = "PronunciationAudioCache";
+
+    private static final String DISK_DIR = "pronunciations";
+    private static final long DISK_MAX_BYTES = 50L * 1024 * 1024;
+    private static final String AUDIO_EXTENSION = ".audio";
+    private static final int MAX_CONCURRENT_DOWNLOADS = 3;
+    private static final int METERED_PREFETCH_LIMIT = 5;
+
+    private static PronunciationAudioCache instance;
+
+    private final File diskDir;
+    private final OkHttpClient httpClient;
+    private final ConnectivityManager connectivityManager;
+    private final ExecutorService downloadExecutor = Executors.newFixedThreadPool(MAX_CONCURRENT_DOWNLOADS);
+    private final ExecutorService trimExecutor = Executors.newSingleThreadExecutor();
+    // URLs queued or downloading, so the same clip is never fetched twice at once
+    private final Set<String> pendingUrls = new HashSet<>();
+
+    private PronunciationAudioCache(Context context) {
+        Context appContext = context.getApplicationContext();
+        // Not under cacheDir: the clips are what makes the lessons work offline
+        diskDir = new File(appContext.getNoBackupFilesDir(), DISK_DIR);
+        httpClient = NetworkClient.getInstance(appContext).getHttpClient();
+        connectivityManager = (ConnectivityManager) appContext.getSystemService(Context.CONNECTIVITY_SERVICE);
+        trimExecutor.execute(() -> {
+            if (!diskDir.exists()) {
+                diskDir.mkdirs();
+            }
+            // Drop downloads interrupted by a previous process; this one's are kept
+            DiskCacheUtils.deleteStalePartialFiles(diskDir);
+            DiskCacheUtils.trimDirectory(diskDir, DISK_MAX_BYTES, 0);
+        });
+    }
+
+    public static synchronized PronunciationAudioCache getInstance(Context context) {
+        if (instance == null) {
+            instance = new PronunciationAudioCache(context);
+        }
+        return instance;
+    }
+
+    /**
+     * Queues the audio of every item for download, in list order.
+     */
+    public <T> void prefetch(List<T> items, Function<T, String> audioUrlOf) {
+        int limit = isMetered() ? Math.min(METERED_PREFETCH_LIMIT, items.size()) : items.size();
+        for (int i = 0; i < limit; i++) {
+            String url = audioUrlOf.apply(items.get(i));
+            if (url != null && !url.isEmpty() && getCachedFile(url) == null) {
+                enqueue(url);
+            }
+        }
+    }
+
+    /**
+     * Returns the downloaded clip for this URL, or null if it is not on disk yet.
+     */
+    public File getCachedFile(String url) {
+        File file = fileFor(url);
+        if (!file.isFile() || file.length() == 0) return null;
+        DiskCacheUtils.touch(file);
+        return file;
+    }
+
+    /**
+     * What to hand to MediaPlayer.setDataSource: the local path if the clip is cached,
+     * otherwise the URL itself, in which case the clip is downloaded for next time.
+     */
+    public String resolve(String url) {
+        File file = getCachedFile(url);
+        if (file != null) {
+            return file.getAbsolutePath();
+        }
+        enqueue(url);
+        return url;
+    }
+
+    private void enqueue(String url) {
+        synchronized (pendingUrls) {
+            if (!pendingUrls.add(url)) return;
+        }
+        downloadExecutor.execute(() -> {
+            try {
+                download(url);
+            } catch (IOException e) {
+                Log.w(TAG, "Could not cache " + url, e);
+            } finally {
+                synchronized (pendingUrls) {
+                    pendingUrls.remove(url);
+                }
+            }
+        });
+    }
+
+    private void download(String url) throws IOException {
+        File file = fileFor(url);
+        if (file.isFile() && file.length() > 0) return;
+        if (!diskDir.exists() && !diskDir.mkdirs()) {
+            throw new IOException("Cannot create " + diskDir);
+        }
+
+        okhttp3.Request request = new okhttp3.Request.Builder().url(url).build();
+        File partial = DiskCacheUtils.createPartialFile(diskDir, DiskCacheUtils.sha256Hex(url));
+        try (Response response = httpClient.newCall(request).execute()) {
+            if (!response.isSuccessful() || response.body() == null) {
+                throw new IOException("Server returned HTTP " + response.code());
+            }
+            try (InputStream in = response.body().byteStream();
+                 OutputStream out = Files.newOutputStream(partial.toPath())) {
+                byte[] buffer = new byte[8192];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    out.write(buffer, 0, read);
+                }
+            }
+            if (!partial.renameTo(file)) {
+                throw new IOException("Cannot move " + partial + " to " + file);
+            }
+        } finally {
+            partial.delete();
+        }
+        trimExecutor.execute(() -> DiskCacheUtils.trimDirectory(diskDir, DISK_MAX_BYTES, 0));
+    }
+
+    private boolean isMetered() {
+        return connectivityManager != null && connectivityManager.isActiveNetworkMetered();
+    }
+
+    private File fileFor(String url) {
+        return new File(diskDir, DiskCacheUtils.sha256Hex(url) + AUDIO_EXTENSION);
+    }
+}
@@ -0,0 +1,145 @@
+package com.translator.kapamtalk;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.android.volley.DefaultRetryPolicy;
+import com.android.volley.Request;
+import com.android.volley.RequestQueue;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Scores exam takes against the item's reference pronunciation with the Flask /evaluate
+ * endpoint. Each take is trimmed and compressed in memory in the background and uploaded
+ * from there, so nothing is written to disk. Results are delivered on the main thread.
+ */
+public class PronunciationEvaluator {
+    private static final String TAG = "PronunciationEvaluator";
+
+    private static final String FLASK_EVALUATE_ENDPOINT = "/evaluate";
+    // Evaluation can take a while on a cold server
+    private static final int TIMEOUT_MS = 180000;
+
+    private final RequestQueue requestQueue;
+    // Takes being encoded or uploaded; only touched on the main thread
+    private final List<Upload> uploads = new ArrayList<>();
+
+    private static class Upload {
+        final Object tag;
+        boolean cancelled;
+
+        Upload(Object tag) {
+            this.tag = tag;
+        }
+    }
+
+    public static class Result {
+        private final boolean correct;
+        private final double score;
+        private final String feedback;
+
+        Result(boolean correct, double score, String feedback) {
+            this.correct = correct;
+            this.score = score;
+            this.feedback = feedback;
+        }
+
+        public boolean isCorrect() {
+            return correct;
+        }
+
+        // 0 to 100
+        public double getScore() {
+            return score;
+        }
+
+        public String getFeedback() {
+            return feedback;
+        }
+    }
+
+    public interface Callback {
+        void onEvaluated(Result result);
+
+        void onError(Exception error);
+    }
+
+    public PronunciationEvaluator(Context context) {
+        this.requestQueue = NetworkClient.getInstance(context).getRequestQueue();
+    }
+
+    /**
+     * Uploads the take for scoring; tag it so {@link #cancelAll} can drop it.
+     */
+    public void evaluate(PcmRecorder.Recording recording, String language, String referenceLocator,
+                         Object tag, Callback callback) {
+        Upload upload = new Upload(tag);
+        uploads.add(upload);
+
+        AudioPreprocessor.encodePcmAsync(recording.getSamples(), recording.getSampleRate(), audio -> {
+            if (upload.cancelled) return;
+            requestQueue.add(buildRequest(language, referenceLocator, audio, upload, callback));
+        });
+    }
+
+    /**
+     * Cancels pending evaluations with this tag; their callbacks are never invoked.
+     */
+    public void cancelAll(Object tag) {
+        requestQueue.cancelAll(tag);
+        Iterator<Upload> it = uploads.iterator();
+        while (it.hasNext()) {
+            Upload upload = it.next();
+            if (upload.tag == tag || (upload.tag != null && upload.tag.equals(tag))) {
+                upload.cancelled = true;
+                it.remove();
+            }
+        }
+    }
+
+    private StreamingMultipartRequest buildRequest(String language, String referenceLocator,
+                                                   AudioPreprocessor.EncodedAudio audio,
+                                                   Upload upload, Callback callback) {
+        StreamingMultipartRequest multipartRequest = new StreamingMultipartRequest(
+                Request.Method.POST,
+                NetworkClient.FLASK_BASE_URL + FLASK_EVALUATE_ENDPOINT,
+                response -> {
+                    uploads.remove(upload);
+                    try {
+                        callback.onEvaluated(parseResult(new String(response.data)));
+                    } catch (JSONException e) {
+                        Log.e(TAG, "Error parsing evaluation response", e);
+                        callback.onError(e);
+                    }
+                },
+                error -> {
+                    uploads.remove(upload);
+                    callback.onError(error);
+                }
+        );
+        multipartRequest.addParam("language", language);
+        multipartRequest.addParam("reference_locator", referenceLocator);
+        multipartRequest.addBytes("audio", audio.getFileName(), audio.getMimeType(), audio.getData());
+
+        multipartRequest.setRetryPolicy(new DefaultRetryPolicy(
+                TIMEOUT_MS,
+                DefaultRetryPolicy.DEFAULT_MAX_RETRIES,
+                DefaultRetryPolicy.DEFAULT_BACKOFF_MULT));
+        multipartRequest.setTag(upload.tag);
+        return multipartRequest;
+    }
+
+    static Result parseResult(String responseData) throws JSONException {
+        JSONObject jsonResponse = new JSONObject(responseData);
+        return new Result(
+                jsonResponse.getBoolean("is_correct"),
+                jsonResponse.getDouble("score"),
+                jsonResponse.getString("feedback"));
+    }
+}
@@ -0,0 +1,96 @@
+package com.translator.kapamtalk;
+
+/**
+ * Quick acoustic checks run on an exam take before it is sent to /evaluate. Takes that
+ * cannot be scored (no input, no speech, too quiet, clipped, or drowned in background
+ * noise) are turned away on the device with a hint the user can act on, instead of
+ * waiting for the server to say the same thing.
+ */
+public final class PronunciationPrescreen {
+
+    // Quieter than this is no input at all, e.g. a muted or covered microphone
+    private static final double MIN_SIGNAL_DBFS = -60.0;
+    // Less detected speech than this is a tap or a breath, not a word
+    private static final long MIN_SPEECH_MS = 300;
+    // Speech whose loudest frame stays below this is too faint to score reliably
+    private static final double MIN_SPEECH_PEAK_DBFS = -40.0;
+    // A take whose quietest frame is this loud has no pause in it, only background noise
+    private static final double MAX_QUIETEST_FRAME_DBFS = -30.0;
+    // Samples this close to full scale are treated as clipped
+    private static final int CLIP_LEVEL = 32000;
+    private static final double MAX_CLIPPED_FRACTION = 0.005;
+
+    private PronunciationPrescreen() {
+    }
+
+    public static class Result {
+        private final boolean acceptable;
+        private final String message;
+
+        private Result(boolean acceptable, String message) {
+            this.acceptable = acceptable;
+            this.message = message;
+        }
+
+        public boolean isAcceptable() {
+            return acceptable;
+        }
+
+        // What to tell the user when the take is rejected
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    public static Result check(PcmRecorder.Recording recording) {
+        if (recording.getPeakDbfs() < MIN_SIGNAL_DBFS) {
+            return reject("No sound was recorded. Make sure the microphone is not covered and try again.");
+        }
+
+        short[] samples = recording.getSamples();
+        int sampleRate = recording.getSampleRate();
+        double[] levels = AudioPreprocessor.frameLevels(samples, samples.length, sampleRate);
+        if (levels.length == 0) {
+            return reject("Recording too short! Please try again.");
+        }
+
+        double threshold = AudioPreprocessor.speechThreshold(AudioPreprocessor.noiseFloor(levels));
+        int speechFrames = 0;
+        double speechPeak = -120.0;
+        double quietest = 0.0;
+        for (double level : levels) {
+            quietest = Math.min(quietest, level);
+            if (level >= threshold) {
+                speechFrames++;
+                speechPeak = Math.max(speechPeak, level);
+            }
+        }
+        long frameMs = AudioPreprocessor.frameSize(sampleRate) * 1000L / sampleRate;
+
+        if (quietest > MAX_QUIETEST_FRAME_DBFS) {
+            return reject("It's too noisy to hear you. Move somewhere quieter and try again.");
+        }
+        if (speechFrames * frameMs < MIN_SPEECH_MS) {
+            return reject("We couldn't hear you. Speak clearly while holding the button.");
+        }
+        if (speechPeak < MIN_SPEECH_PEAK_DBFS) {
+            return reject("Your voice is too quiet. Hold the phone closer and speak up.");
+        }
+
+        int clipped = 0;
+        for (short sample : samples) {
+            if (sample >= CLIP_LEVEL || sample <= -CLIP_LEVEL) {
+                clipped++;
+            }
+        }
+        if (clipped > samples.length * MAX_CLIPPED_FRACTION) {
+            return reject("Your recording is distorted. Hold the phone a little farther away and try again.");
+        }
+
+        return new Result(true, null);
+    }
+
+    private static Result reject(String message) {
+        return new Result(false, message);
+    }
+}
@@ -0,0 +1,74 @@
+package com.translator.kapamtalk;
+
+import android.util.Log;
+
+import com.android.volley.DefaultRetryPolicy;
+import com.android.volley.Request;
+import com.android.volley.RequestQueue;
+import com.android.volley.toolbox.JsonObjectRequest;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Translation through the Flask /translate endpoint.
+ */
+public class RemoteTranslationEngine implements TranslationEngine {
+    private static final String TAG = "RemoteTranslation";
+
+    private static final String FLASK_TRANSLATION_ENDPOINT = "/translate";
+
+    private final RequestQueue requestQueue;
+
+    public RemoteTranslationEngine(RequestQueue requestQueue) {
+        this.requestQueue = requestQueue;
+    }
+
+    @Override
+    public boolean supports(String sourceLanguage, String targetLanguage) {
+        return true;
+    }
+
+    @Override
+    public void translate(String text, String sourceLanguage, String targetLanguage, Object tag, Callback callback) {
+        JSONObject jsonBody = new JSONObject();
+        try {
+            jsonBody.put("text", text);
+            jsonBody.put("source_language", sourceLanguage);
+            jsonBody.put("target_language", targetLanguage);
+        } catch (JSONException e) {
+            e.printStackTrace();
+        }
+
+        String fullUrl = NetworkClient.FLASK_BASE_URL + FLASK_TRANSLATION_ENDPOINT;
+
+        JsonObjectRequest jsonRequest = new JsonObjectRequest(Request.Method.POST, fullUrl, jsonBody,
+                response -> {
+                    try {
+                        callback.onSuccess(response.getString("translated_text"));
+                    } catch (JSONException e) {
+                        Log.e(TAG, "Error parsing translation response", e);
+                        callback.onError(e);
+                    }
+                },
+                error -> {
+                    Log.e(TAG, "Translation request failed: " + error.toString(), error);
+                    callback.onError(error);
+                }
+        );
+        jsonRequest.setTag(tag);
+
+        // Set a timeout for the request (30 seconds)
+        jsonRequest.setRetryPolicy(new DefaultRetryPolicy(
+                30000,
+                DefaultRetryPolicy.DEFAULT_MAX_RETRIES,
+                DefaultRetryPolicy.DEFAULT_BACKOFF_MULT));
+
+        requestQueue.add(jsonRequest);
+    }
+
+    @Override
+    public void cancelAll(Object tag) {
+        requestQueue.cancelAll(tag);
+    }
+}
@@ -0,0 +1,253 @@
+package com.translator.kapamtalk;
+
+import android.annotation.SuppressLint;
+import android.content.Context;
+import android.media.AudioFormat;
+import android.media.AudioRecord;
+import android.media.MediaRecorder;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.android.volley.DefaultRetryPolicy;
+import com.android.volley.Request;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One push-to-talk recognition. Microphone PCM is captured with AudioRecord and sent in
+ * 100 ms chunks over a WebSocket to /asr_stream while the user is still speaking (see
+ * {@link AsrStreamConnection}), and partial transcriptions come back as they are
+ * produced. The PCM is also written to a WAV file; if the socket cannot be used the file
+ * is uploaded to /asr on finish instead.
+ */
+public class StreamingAsrSession {
+    private static final String TAG = "StreamingAsrSession";
+
+    private static final String FLASK_ASR_ENDPOINT = "/asr";
+
+    private static final int SAMPLE_RATE = 16000;
+    private static final int CHUNK_MS = 100;
+    private static final int CHUNK_BYTES = SAMPLE_RATE * 2 * CHUNK_MS / 1000;
+    // How long to wait for the final transcription after the end message
+    private static final long FINAL_TIMEOUT_MS = 10000;
+
+    public interface Listener {
+        // All callbacks run on the main thread
+        void onPartialTranscription(String text);
+
+        void onFinalTranscription(String text);
+
+        void onError(String message);
+    }
+
+    private final Context context;
+    private final String baseUrl;
+    private final String language;
+    private final File wavFile;
+    private final Listener listener;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final AtomicBoolean completed = new AtomicBoolean(false);
+    private final Runnable finalTimeout = this::fallBackToUpload;
+
+    private AsrStreamConnection stream;
+    private volatile boolean capturing = false;
+    private volatile boolean finishing = false;
+    // Set by the capture thread once the WAV file is complete and the microphone released
+    private volatile boolean captureDone = false;
+    // Main thread only
+    private boolean uploadStarted = false;
+
+    public StreamingAsrSession(Context context, String language, File wavFile, Listener listener) {
+        this(context, NetworkClient.FLASK_BASE_URL, language, wavFile, listener);
+    }
+
+    StreamingAsrSession(Context context, String baseUrl, String language, File wavFile, Listener listener) {
+        this.context = context.getApplicationContext();
+        this.baseUrl = baseUrl;
+        this.language = language;
+        this.wavFile = wavFile;
+        this.listener = listener;
+    }
+
+    /**
+     * Starts capturing and streaming; returns false if the microphone could not be opened.
+     * The caller is responsible for holding the RECORD_AUDIO permission.
+     */
+    @SuppressLint("MissingPermission")
+    public boolean start() {
+        int minBuffer = AudioRecord.getMinBufferSize(SAMPLE_RATE,
+                AudioFormat.CHANNEL_IN_MONO, AudioFormat.ENCODING_PCM_16BIT);
+        if (minBuffer <= 0) return false;
+
+        AudioRecord audioRecord = new AudioRecord(MediaRecorder.AudioSource.VOICE_RECOGNITION, SAMPLE_RATE,
+                AudioFormat.CHANNEL_IN_MONO, AudioFormat.ENCODING_PCM_16BIT,
+                Math.max(minBuffer, CHUNK_BYTES * 4));
+        if (audioRecord.getState() != AudioRecord.STATE_INITIALIZED) {
+            audioRecord.release();
+            return false;
+        }
+
+        stream = new AsrStreamConnection(NetworkClient.getInstance(context).getHttpClient(), baseUrl,
+                language, SAMPLE_RATE, new AsrStreamConnection.Callback() {
+                    @Override
+                    public void onPartial(String text) {
+                        mainHandler.post(() -> {
+                            if (!completed.get()) listener.onPartialTranscription(text);
+                        });
+                    }
+
+                    @Override
+                    public void onFinal(String transcription) {
+                        mainHandler.post(() -> deliverFinal(transcription));
+                    }
+
+                    @Override
+                    public void onFailure() {
+                        Log.w(TAG, "Streaming ASR unavailable, will upload the recording instead");
+                        // While still recording, the capture thread falls back once it stops
+                        if (captureDone) {
+                            mainHandler.post(StreamingAsrSession.this::fallBackToUpload);
+                        }
+                    }
+                });
+        stream.open();
+
+        audioRecord.startRecording();
+        capturing = true;
+        new Thread(() -> captureLoop(audioRecord), "asr-capture").start();
+        return true;
+    }
+
+    /**
+     * Stops the microphone and asks for the final transcription. Returns immediately;
+     * the capture thread finishes the recording and then ends the stream.
+     */
+    public void finish() {
+        if (finishing || stream == null) return;
+        finishing = true;
+        capturing = false;
+    }
+
+    /**
+     * Stops everything without delivering further callbacks.
+     */
+    public void cancel() {
+        completed.set(true);
+        capturing = false;
+        mainHandler.removeCallbacks(finalTimeout);
+        if (stream != null) {
+            stream.cancel();
+        }
+        NetworkClient.getInstance(context).getRequestQueue().cancelAll(this);
+    }
+
+    private void captureLoop(AudioRecord audioRecord) {
+        byte[] chunk = new byte[CHUNK_BYTES];
+        long dataBytes = 0;
+        boolean microphoneFailed = false;
+        try (RandomAccessFile wav = new RandomAccessFile(wavFile, "rw")) {
+            wav.setLength(0);
+            wav.write(new byte[WavFormat.HEADER_BYTES]);
+
+            while (capturing) {
+                int read = audioRecord.read(chunk, 0, chunk.length);
+                if (read < 0) {
+                    // ERROR_INVALID_OPERATION, ERROR_DEAD_OBJECT and friends do not recover
+                    Log.e(TAG, "AudioRecord.read failed with " + read);
+                    microphoneFailed = true;
+                    break;
+                }
+                if (read == 0) continue;
+
+                wav.write(chunk, 0, read);
+                dataBytes += read;
+                stream.sendAudio(chunk, 0, read);
+            }
+
+            wav.seek(0);
+            wav.write(WavFormat.header(SAMPLE_RATE, dataBytes));
+        } catch (IOException e) {
+            Log.e(TAG, "Error writing recording", e);
+        } finally {
+            try {
+                audioRecord.stop();
+            } catch (IllegalStateException e) {
+                Log.w(TAG, "AudioRecord was not recording", e);
+            }
+            audioRecord.release();
+        }
+
+        if (microphoneFailed) {
+            // Cancelled before captureDone, so the stream cannot trigger the upload fallback
+            stream.cancel();
+        }
+        captureDone = true;
+        if (completed.get()) return;
+        if (microphoneFailed) {
+            mainHandler.post(() -> deliverError("Error recording audio"));
+        } else if (stream.hasFailed()) {
+            mainHandler.post(this::fallBackToUpload);
+        } else {
+            mainHandler.postDelayed(finalTimeout, FINAL_TIMEOUT_MS);
+            stream.end();
+        }
+    }
+
+    // Non-streaming path: the same request the screen used to send after recording
+    private void fallBackToUpload() {
+        if (completed.get() || uploadStarted) return;
+        uploadStarted = true;
+        mainHandler.removeCallbacks(finalTimeout);
+        stream.cancel();
+
+        StreamingMultipartRequest multipartRequest = new StreamingMultipartRequest(
+                Request.Method.POST,
+                baseUrl + FLASK_ASR_ENDPOINT,
+                response -> {
+                    try {
+                        JSONObject jsonResponse = new JSONObject(new String(response.data));
+                        deliverFinal(jsonResponse.getString("transcription"));
+                    } catch (JSONException e) {
+                        Log.e(TAG, "Error parsing response", e);
+                        deliverError("Error processing transcription");
+                    }
+                },
+                error -> {
+                    Log.e(TAG, "ASR request failed: " + error.toString(), error);
+                    deliverError("Error connecting to server");
+                }
+        );
+        multipartRequest.addParam("language", language);
+
+        // Trim silence and compress before uploading; the raw recording is sent if that fails
+        AudioPreprocessor.processAsync(wavFile, "audio.wav", "audio/wav", audio -> {
+            if (completed.get()) return;
+            multipartRequest.addFile("audio", audio.getFileName(), audio.getMimeType(), audio.getFile());
+            multipartRequest.setRetryPolicy(new DefaultRetryPolicy(
+                    30000,
+                    DefaultRetryPolicy.DEFAULT_MAX_RETRIES,
+                    DefaultRetryPolicy.DEFAULT_BACKOFF_MULT));
+            multipartRequest.setTag(this);
+            NetworkClient.getInstance(context).getRequestQueue().add(multipartRequest);
+        });
+    }
+
+    private void deliverFinal(String transcription) {
+        if (completed.getAndSet(true)) return;
+        mainHandler.removeCallbacks(finalTimeout);
+        listener.onFinalTranscription(transcription);
+    }
+
+    private void deliverError(String message) {
+        if (completed.getAndSet(true)) return;
+        mainHandler.removeCallbacks(finalTimeout);
+        listener.onError(message);
+    }
+}
@@ -0,0 +1,79 @@
+package com.translator.kapamtalk;
+
+import android.media.MediaDataSource;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A MediaDataSource filled by a download that is still in progress. Reads past the
+ * bytes received so far block until more arrive, so MediaPlayer can start decoding
+ * the first chunk while the rest of the file is on the wire.
+ */
+public class StreamingAudioSource extends MediaDataSource {
+
+    private static final int INITIAL_CAPACITY = 64 * 1024;
+
+    private byte[] data = new byte[INITIAL_CAPACITY];
+    private int length;
+    private boolean finished;
+    private boolean closed;
+    private IOException failure;
+
+    /**
+     * Called by the downloader for each chunk received.
+     */
+    public synchronized void append(byte[] buffer, int count) {
+        if (closed) return;
+        if (length + count > data.length) {
+            data = Arrays.copyOf(data, Math.max(data.length * 2, length + count));
+        }
+        System.arraycopy(buffer, 0, data, length, count);
+        length += count;
+        notifyAll();
+    }
+
+    public synchronized void finish() {
+        finished = true;
+        notifyAll();
+    }
+
+    public synchronized void fail(IOException e) {
+        failure = e;
+        notifyAll();
+    }
+
+    public synchronized boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public synchronized int readAt(long position, byte[] buffer, int offset, int size) throws IOException {
+        while (position >= length && !finished && failure == null && !closed) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for audio data", e);
+            }
+        }
+        if (failure != null) throw failure;
+        if (closed || position >= length) return -1;
+
+        int count = (int) Math.min(size, length - position);
+        System.arraycopy(data, (int) position, buffer, offset, count);
+        return count;
+    }
+
+    @Override
+    public synchronized long getSize() {
+        // Unknown until the download completes
+        return finished ? length : -1;
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        notifyAll();
+    }
+}
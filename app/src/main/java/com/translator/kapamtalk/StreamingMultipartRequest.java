@@ -0,0 +1,92 @@
+package com.translator.kapamtalk;
+
+import android.util.Log;
+
+import com.android.volley.NetworkResponse;
+import com.android.volley.Request;
+import com.android.volley.Response;
+import com.android.volley.toolbox.HttpHeaderParser;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.UUID;
+
+import okhttp3.MediaType;
+import okhttp3.MultipartBody;
+import okhttp3.RequestBody;
+import okio.Buffer;
+
+/**
+ * Multipart form upload whose file parts are streamed from disk. When it runs on the
+ * shared {@link OkHttpStack} the body is written straight from the file to the socket,
+ * so a recording is never held on the heap; other stacks fall back to {@link #getBody()}.
+ * Audio that is already in memory can be added as a byte part instead.
+ */
+public class StreamingMultipartRequest extends Request<NetworkResponse> {
+    private static final String TAG = "StreamingMultipart";
+
+    private final Response.Listener<NetworkResponse> mListener;
+    private final String boundary = "apiclient-" + UUID.randomUUID();
+    private final MultipartBody.Builder bodyBuilder =
+            new MultipartBody.Builder(boundary).setType(MultipartBody.FORM);
+    private MultipartBody body;
+
+    public StreamingMultipartRequest(int method, String url,
+                                     Response.Listener<NetworkResponse> listener,
+                                     Response.ErrorListener errorListener) {
+        super(method, url, errorListener);
+        this.mListener = listener;
+    }
+
+    public StreamingMultipartRequest addParam(String name, String value) {
+        bodyBuilder.addFormDataPart(name, value);
+        return this;
+    }
+
+    public StreamingMultipartRequest addFile(String name, String fileName, String mimeType, File file) {
+        bodyBuilder.addFormDataPart(name, fileName, RequestBody.create(file, MediaType.parse(mimeType)));
+        return this;
+    }
+
+    public StreamingMultipartRequest addBytes(String name, String fileName, String mimeType, byte[] data) {
+        bodyBuilder.addFormDataPart(name, fileName, RequestBody.create(data, MediaType.parse(mimeType)));
+        return this;
+    }
+
+    /**
+     * The body as an OkHttp RequestBody; file parts are read from disk each time it is written.
+     */
+    public synchronized RequestBody toRequestBody() {
+        if (body == null) {
+            body = bodyBuilder.build();
+        }
+        return body;
+    }
+
+    @Override
+    public String getBodyContentType() {
+        return "multipart/form-data; boundary=" + boundary;
+    }
+
+    @Override
+    public byte[] getBody() {
+        Buffer buffer = new Buffer();
+        try {
+            toRequestBody().writeTo(buffer);
+            return buffer.readByteArray();
+        } catch (IOException e) {
+            Log.e(TAG, "Error creating request body", e);
+            return null;
+        }
+    }
+
+    @Override
+    protected Response<NetworkResponse> parseNetworkResponse(NetworkResponse response) {
+        return Response.success(response, HttpHeaderParser.parseCacheHeaders(response));
+    }
+
+    @Override
+    protected void deliverResponse(NetworkResponse response) {
+        mListener.onResponse(response);
+    }
+}
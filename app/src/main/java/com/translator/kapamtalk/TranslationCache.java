@@ -0,0 +1,204 @@
+package com.translator.kapamtalk;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.util.LruCache;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Two-tier cache for /translate results keyed by (text, source, target): an in-memory
+ * LRU in front of a size- and age-bounded directory under the app cache dir. Entries
+ * expire a fixed time after they were written, however often they are read; reads only
+ * decide which entries are trimmed first when the directory is full.
+ */
+public class TranslationCache {
+    private static final String TAG = "TranslationCache";
+
+    private static final int MEMORY_ENTRIES = 100;
+    private static final String DISK_DIR = "translations";
+    private static final long DISK_MAX_BYTES = 1024 * 1024;
+    private static final long TTL_MS = 7L * 24 * 60 * 60 * 1000;
+
+    private static TranslationCache instance;
+
+    public interface Callback {
+        // Called on the main thread; translatedText is null on a miss
+        void onResult(String translatedText);
+    }
+
+    private final LruCache<String, Entry> memory = new LruCache<>(MEMORY_ENTRIES);
+    private final File diskDir;
+    private final ExecutorService diskExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    static class Entry {
+        final String translatedText;
+        final long createdAt;
+
+        Entry(String translatedText, long createdAt) {
+            this.translatedText = translatedText;
+            this.createdAt = createdAt;
+        }
+
+        boolean isExpired() {
+            return System.currentTimeMillis() - createdAt > TTL_MS;
+        }
+    }
+
+    private TranslationCache(Context context) {
+        this(new File(context.getApplicationContext().getCacheDir(), DISK_DIR));
+    }
+
+    // Package-private so tests can use a temporary directory
+    TranslationCache(File diskDir) {
+        this.diskDir = diskDir;
+        diskExecutor.execute(() -> {
+            if (!diskDir.exists()) {
+                diskDir.mkdirs();
+            }
+            trimDisk();
+        });
+    }
+
+    public static synchronized TranslationCache getInstance(Context context) {
+        if (instance == null) {
+            instance = new TranslationCache(context);
+        }
+        return instance;
+    }
+
+    /**
+     * Memory-only lookup, cheap enough for the main thread.
+     */
+    public String getFromMemory(String text, String sourceLanguage, String targetLanguage) {
+        String key = key(text, sourceLanguage, targetLanguage);
+        Entry entry = memory.get(key);
+        if (entry == null) return null;
+        if (entry.isExpired()) {
+            memory.remove(key);
+            return null;
+        }
+        return entry.translatedText;
+    }
+
+    /**
+     * Checks memory, then disk on a background thread, and reports on the main thread.
+     */
+    public void get(String text, String sourceLanguage, String targetLanguage, Callback callback) {
+        String cached = getFromMemory(text, sourceLanguage, targetLanguage);
+        if (cached != null) {
+            callback.onResult(cached);
+            return;
+        }
+
+        String key = key(text, sourceLanguage, targetLanguage);
+        diskExecutor.execute(() -> {
+            Entry entry = readFromDisk(key);
+            if (entry != null) {
+                memory.put(key, entry);
+            }
+            String result = entry != null ? entry.translatedText : null;
+            mainHandler.post(() -> callback.onResult(result));
+        });
+    }
+
+    public void put(String text, String sourceLanguage, String targetLanguage, String translatedText) {
+        if (translatedText == null) return;
+        String key = key(text, sourceLanguage, targetLanguage);
+        Entry entry = new Entry(translatedText, System.currentTimeMillis());
+        memory.put(key, entry);
+        diskExecutor.execute(() -> {
+            writeToDisk(key, entry);
+            trimDisk();
+        });
+    }
+
+    /**
+     * Drops entries written more than TTL_MS ago, then the least recently read ones
+     * until the directory fits DISK_MAX_BYTES. Runs on the disk executor.
+     */
+    void trimDisk() {
+        File[] files = diskDir.listFiles();
+        if (files == null) return;
+        for (File file : files) {
+            try {
+                // Last-modified times move on every read, so the age comes from the entry
+                if (new Entry(null, readJson(file).getLong("created_at")).isExpired()) {
+                    file.delete();
+                }
+            } catch (IOException | JSONException e) {
+                Log.w(TAG, "Dropping unreadable cache entry", e);
+                file.delete();
+            }
+        }
+        DiskCacheUtils.trimDirectory(diskDir, DISK_MAX_BYTES, 0);
+    }
+
+    Entry readFromDisk(String key) {
+        File file = new File(diskDir, DiskCacheUtils.sha256Hex(key));
+        if (!file.exists()) return null;
+
+        try {
+            JSONObject json = readJson(file);
+            // Guard against hash collisions and expired entries
+            if (!key.equals(json.optString("key"))) return null;
+            Entry entry = new Entry(json.getString("translated_text"), json.getLong("created_at"));
+            if (entry.isExpired()) {
+                file.delete();
+                return null;
+            }
+            DiskCacheUtils.touch(file);
+            return entry;
+        } catch (IOException | JSONException e) {
+            Log.w(TAG, "Dropping unreadable cache entry", e);
+            file.delete();
+            return null;
+        }
+    }
+
+    void writeToDisk(String key, Entry entry) {
+        File file = new File(diskDir, DiskCacheUtils.sha256Hex(key));
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            JSONObject json = new JSONObject();
+            json.put("key", key);
+            json.put("translated_text", entry.translatedText);
+            json.put("created_at", entry.createdAt);
+            out.write(json.toString().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException | JSONException e) {
+            Log.w(TAG, "Error writing cache entry", e);
+            file.delete();
+        }
+    }
+
+    private static JSONObject readJson(File file) throws IOException, JSONException {
+        try (FileInputStream in = new FileInputStream(file)) {
+            byte[] data = new byte[(int) file.length()];
+            int offset = 0;
+            while (offset < data.length) {
+                int read = in.read(data, offset, data.length - offset);
+                if (read == -1) break;
+                offset += read;
+            }
+            return new JSONObject(new String(data, 0, offset, StandardCharsets.UTF_8));
+        }
+    }
+
+    static String key(String text, String sourceLanguage, String targetLanguage) {
+        return sourceLanguage.toLowerCase(Locale.ROOT) + '\n'
+                + targetLanguage.toLowerCase(Locale.ROOT) + '\n'
+                + text.trim();
+    }
+}
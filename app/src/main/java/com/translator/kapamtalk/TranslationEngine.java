@@ -0,0 +1,26 @@
+package com.translator.kapamtalk;
+
+/**
+ * A backend that turns text in one language into another. Implementations deliver
+ * results on the main thread and tag work so a screen can drop what it no longer needs.
+ */
+public interface TranslationEngine {
+
+    interface Callback {
+        void onSuccess(String translatedText);
+
+        void onError(Exception error);
+    }
+
+    /**
+     * Whether this engine can currently translate between the two (lowercase) languages.
+     */
+    boolean supports(String sourceLanguage, String targetLanguage);
+
+    void translate(String text, String sourceLanguage, String targetLanguage, Object tag, Callback callback);
+
+    /**
+     * Cancels pending work with this tag; cancelled callbacks are never invoked.
+     */
+    void cancelAll(Object tag);
+}
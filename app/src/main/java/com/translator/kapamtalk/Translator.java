@@ -10,13 +10,13 @@ import android.content.Intent;
 import android.content.pm.PackageManager;
 import android.graphics.Color;
 import android.graphics.Rect;
-import android.media.MediaPlayer;
-import android.media.MediaRecorder;
 import android.net.ConnectivityManager;
 import android.net.Network;
 import android.net.NetworkCapabilities;
 import android.net.NetworkRequest;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
 import android.view.MotionEvent;
 import android.view.View;
@@ -37,31 +37,23 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.app.ActivityCompat;
 import androidx.core.content.ContextCompat;
 
-import com.android.volley.AuthFailureError;
 import com.android.volley.DefaultRetryPolicy;
-import com.android.volley.NetworkResponse;
 import com.android.volley.Request;
 import com.android.volley.RequestQueue;
-import com.android.volley.Response;
-import com.android.volley.toolbox.HttpHeaderParser;
 import com.android.volley.toolbox.JsonObjectRequest;
-import com.android.volley.toolbox.Volley;
 import com.google.android.material.bottomnavigation.BottomNavigationView;
 import com.google.firebase.auth.FirebaseAuth;
 
 import org.json.JSONException;
 import org.json.JSONObject;
 
-import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.HttpURLConnection;
 import java.net.URL;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.List;
 
 public class Translator extends AppCompatActivity {
 
@@ -71,6 +63,11 @@ public class Translator extends AppCompatActivity {
     private Spinner sourceLanguageSpinner, targetLanguageSpinner;
     private ImageButton speechButton, micButton, translateButton, speakerButton, copyButton;
     private RequestQueue requestQueue;
+    private TranslationCache translationCache;
+    private TtsAudioCache ttsAudioCache;
+    private TranslationEngine translationEngine;
+    private BatchTranslationClient batchTranslationClient;
+    private BatchTranslationClient.Call batchTranslationCall;
     private EditText sourceText;
     private BottomNavigationView bottomNavigationView;
     private AlertDialog progressDialog;
@@ -84,15 +81,36 @@ public class Translator extends AppCompatActivity {
     private static final int READ_TIMEOUT_MS = 5000;
 
     // Audio recording variables
-    private MediaRecorder mediaRecorder;
+    private StreamingAsrSession asrSession;
     private String audioFilePath;
     private boolean isRecording = false;
 
+    // Synthesized speech goes through the shared player pool like every other clip
+    private final AudioPlaybackEngine.Listener playbackListener = new AudioPlaybackEngine.Listener() {
+        @Override
+        public void onComplete() {
+            Log.d(TAG, "Audio playback completed");
+        }
+
+        @Override
+        public void onError(int what, int extra) {
+            Log.e(TAG, "Error playing audio: what=" + what + " extra=" + extra);
+            Toast.makeText(Translator.this, "Error playing audio", Toast.LENGTH_SHORT).show();
+        }
+    };
+
     // API endpoints
-    private static final String FLASK_BASE_URL = "https://coco-18-kapamtalk.hf.space";
     private static final String FLASK_TTS_ENDPOINT = "/tts";
-    private static final String FLASK_ASR_ENDPOINT = "/asr";
-    private static final String FLASK_TRANSLATION_ENDPOINT = "/translate";
+
+    // Live translation: wait for a pause in typing and keep at most one /translate call in flight
+    private static final long LIVE_TRANSLATE_DEBOUNCE_MS = 500;
+    private static final String TRANSLATE_REQUEST_TAG = "translate";
+    private final Handler liveTranslateHandler = new Handler(Looper.getMainLooper());
+    private final Runnable liveTranslateRunnable = this::runLiveTranslation;
+    private boolean translationInFlight = false;
+    private boolean liveTranslationPending = false;
+    // Identifies the (source, target, text) the output shows or is being fetched for
+    private String currentTranslationKey;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -101,7 +119,12 @@ public class Translator extends AppCompatActivity {
         setFullscreen();
         setContentView(R.layout.translator);
 
-        requestQueue = Volley.newRequestQueue(this);
+        requestQueue = NetworkClient.getInstance(this).getRequestQueue();
+        translationCache = TranslationCache.getInstance(this);
+        ttsAudioCache = TtsAudioCache.getInstance(this);
+        translationEngine = new RemoteTranslationEngine(requestQueue);
+        batchTranslationClient = new BatchTranslationClient(NetworkClient.getInstance(this),
+                translationEngine, translationCache);
 
         // Initialize UI components
         setupSpinners();
@@ -115,7 +138,7 @@ public class Translator extends AppCompatActivity {
         // Initialize the EditText
         sourceText = findViewById(R.id.sourceText);
 
-        // Add a TextWatcher to clear translation when source text is empty
+        // Add a TextWatcher to clear translation when source text is empty and translate as the user types
         sourceText.addTextChangedListener(new android.text.TextWatcher() {
             @Override
             public void beforeTextChanged(CharSequence s, int start, int count, int after) {
@@ -127,6 +150,8 @@ public class Translator extends AppCompatActivity {
             public void onTextChanged(CharSequence s, int start, int before, int count) {
                 // When text changes, check if it's empty
                 if (s.length() == 0) {
+                    cancelTranslation();
+
                     // Clear the translated text field
                     TextView translatedTextView = findViewById(R.id.translatedText);
                     translatedTextView.setText("Translation will appear here...");
@@ -139,7 +164,9 @@ public class Translator extends AppCompatActivity {
 
             @Override
             public void afterTextChanged(android.text.Editable s) {
-                // Not needed for this implementation
+                if (s.length() > 0) {
+                    scheduleLiveTranslation();
+                }
             }
         });
 
@@ -259,6 +286,7 @@ public class Translator extends AppCompatActivity {
                             "Target language updated to avoid duplication",
                             Toast.LENGTH_SHORT).show();
                 }
+                scheduleLiveTranslation();
             }
 
             @Override
@@ -282,6 +310,7 @@ public class Translator extends AppCompatActivity {
                             "Source language updated to avoid duplication",
                             Toast.LENGTH_SHORT).show();
                 }
+                scheduleLiveTranslation();
             }
 
             @Override
@@ -357,14 +386,110 @@ public class Translator extends AppCompatActivity {
             String sourceLanguage = sourceLanguageSpinner.getSelectedItem().toString().toLowerCase();
             String targetLanguage = targetLanguageSpinner.getSelectedItem().toString().toLowerCase();
 
+            // An explicit tap supersedes whatever live translation is queued or in flight
+            cancelTranslation();
+            String key = translationKey(userInputText, sourceLanguage, targetLanguage);
+            currentTranslationKey = key;
+
+            // Repeated phrases are answered from memory without touching the network
+            String cached = translationCache.getFromMemory(userInputText, sourceLanguage, targetLanguage);
+            if (cached != null) {
+                showTranslatedText(cached);
+                return;
+            }
+
             // Show progress dialog instead of Toast
             showProgressDialog("Translating...");
 
-            // Send the text for translation
-            sendTextForTranslation(userInputText, sourceLanguage, targetLanguage);
+            // Try the disk cache before sending the text for translation
+            translationInFlight = true;
+            translationCache.get(userInputText, sourceLanguage, targetLanguage, translatedText -> {
+                if (isFinishing() || isDestroyed()) return;
+                if (!key.equals(currentTranslationKey)) {
+                    dismissProgressDialog();
+                    return;
+                }
+                if (translatedText != null) {
+                    showTranslatedText(translatedText);
+                    dismissProgressDialog();
+                    onTranslationFinished();
+                } else {
+                    sendTextForTranslation(userInputText, sourceLanguage, targetLanguage, false);
+                }
+            });
+        });
+    }
+
+    private void scheduleLiveTranslation() {
+        if (sourceText == null) return;
+        liveTranslateHandler.removeCallbacks(liveTranslateRunnable);
+        liveTranslateHandler.postDelayed(liveTranslateRunnable, LIVE_TRANSLATE_DEBOUNCE_MS);
+    }
+
+    private void runLiveTranslation() {
+        if (isFinishing() || isDestroyed()) return;
+
+        String text = sourceText.getText().toString().trim();
+        if (text.isEmpty()) return;
+
+        String sourceLanguage = sourceLanguageSpinner.getSelectedItem().toString().toLowerCase();
+        String targetLanguage = targetLanguageSpinner.getSelectedItem().toString().toLowerCase();
+        String key = translationKey(text, sourceLanguage, targetLanguage);
+        if (key.equals(currentTranslationKey)) return;
+
+        // Coalesce: remember that the input moved on and translate the latest text when the current call returns
+        if (translationInFlight) {
+            liveTranslationPending = true;
+            return;
+        }
+
+        currentTranslationKey = key;
+        String cached = translationCache.getFromMemory(text, sourceLanguage, targetLanguage);
+        if (cached != null) {
+            showTranslatedText(cached);
+            return;
+        }
+
+        translationInFlight = true;
+        translationCache.get(text, sourceLanguage, targetLanguage, translatedText -> {
+            if (isFinishing() || isDestroyed()) return;
+            if (!key.equals(currentTranslationKey)) return;
+            if (translatedText != null) {
+                showTranslatedText(translatedText);
+                onTranslationFinished();
+            } else {
+                sendTextForTranslation(text, sourceLanguage, targetLanguage, true);
+            }
         });
     }
 
+    private void onTranslationFinished() {
+        translationInFlight = false;
+        if (liveTranslationPending) {
+            liveTranslationPending = false;
+            runLiveTranslation();
+        }
+    }
+
+    // Drops any queued or in-flight translation; cancelled Volley requests deliver nothing
+    private void cancelTranslation() {
+        liveTranslateHandler.removeCallbacks(liveTranslateRunnable);
+        if (translationEngine != null) {
+            translationEngine.cancelAll(TRANSLATE_REQUEST_TAG);
+        }
+        if (batchTranslationCall != null) {
+            batchTranslationCall.cancel();
+            batchTranslationCall = null;
+        }
+        translationInFlight = false;
+        liveTranslationPending = false;
+        currentTranslationKey = null;
+    }
+
+    private static String translationKey(String text, String sourceLanguage, String targetLanguage) {
+        return sourceLanguage + '\n' + targetLanguage + '\n' + text.trim();
+    }
+
     private void setupTargetSpeechButton() {
         speakerButton = findViewById(R.id.speakerButton);
 
@@ -451,48 +576,54 @@ public class Translator extends AppCompatActivity {
 
         Toast.makeText(this, "Recording started...", Toast.LENGTH_SHORT).show();
 
-        try {
-            // Prepare MediaRecorder
-            mediaRecorder = new MediaRecorder();
-            mediaRecorder.setAudioSource(MediaRecorder.AudioSource.MIC);
-            mediaRecorder.setOutputFormat(MediaRecorder.OutputFormat.MPEG_4);
-            mediaRecorder.setOutputFile(audioFilePath);
-            mediaRecorder.setAudioEncoder(MediaRecorder.AudioEncoder.AAC);
-            mediaRecorder.setAudioSamplingRate(16000);
-
-            mediaRecorder.prepare();
-            mediaRecorder.start();
-            isRecording = true;
-        } catch (IOException e) {
-            Log.e(TAG, "Failed to start recording", e);
+        // Stream the microphone to the server; partial transcriptions fill the source text as they arrive
+        String selectedLanguage = sourceLanguageSpinner.getSelectedItem().toString().toLowerCase();
+        asrSession = new StreamingAsrSession(this, selectedLanguage, new File(audioFilePath),
+                new StreamingAsrSession.Listener() {
+                    @Override
+                    public void onPartialTranscription(String text) {
+                        sourceText.setText(text);
+                        sourceText.setSelection(text.length());
+                    }
+
+                    @Override
+                    public void onFinalTranscription(String text) {
+                        asrSession = null;
+                        sourceText.setText(text);
+                        sourceText.setSelection(text.length());
+                        // Dismiss the progress dialog
+                        dismissProgressDialog();
+                    }
+
+                    @Override
+                    public void onError(String message) {
+                        asrSession = null;
+                        Toast.makeText(Translator.this, message, Toast.LENGTH_SHORT).show();
+                        dismissProgressDialog();
+                    }
+                });
+
+        if (!asrSession.start()) {
+            Log.e(TAG, "Failed to start recording");
             Toast.makeText(this, "Failed to start recording", Toast.LENGTH_SHORT).show();
+            asrSession = null;
             resetMicButton();
+            return;
         }
+        isRecording = true;
     }
 
     private void stopRecording() {
-        if (mediaRecorder != null) {
-            try {
-                mediaRecorder.stop();
-                mediaRecorder.release();
-                mediaRecorder = null;
-                isRecording = false;
-
-                // Reset mic button appearance
-                resetMicButton();
-
-                // Show progress dialog instead of Toast
-                showProgressDialog("Processing speech...");
-
-                // Send the recording to the Flask API
-                String selectedLanguage = sourceLanguageSpinner.getSelectedItem().toString().toLowerCase();
-                sendAudioToFlask(audioFilePath, selectedLanguage);
-
-            } catch (Exception e) {
-                Log.e(TAG, "Failed to stop recording", e);
-                Toast.makeText(this, "Failed to stop recording", Toast.LENGTH_SHORT).show();
-                resetMicButton();
-            }
+        if (asrSession != null) {
+            isRecording = false;
+
+            // Reset mic button appearance
+            resetMicButton();
+
+            // Show progress dialog until the final transcription arrives
+            showProgressDialog("Processing speech...");
+
+            asrSession.finish();
         }
     }
 
@@ -506,69 +637,15 @@ public class Translator extends AppCompatActivity {
         isRecording = false;
     }
 
-    private void sendAudioToFlask(String audioFilePath, String language) {
-        String fullUrl = FLASK_BASE_URL + FLASK_ASR_ENDPOINT;
-
-        // Create a VolleyMultipartRequest
-        VolleyMultipartRequest multipartRequest = new VolleyMultipartRequest(
-                Request.Method.POST,
-                fullUrl,
-                response -> {
-                    try {
-                        String responseData = new String(response.data);
-                        JSONObject jsonResponse = new JSONObject(responseData);
-                        String transcription = jsonResponse.getString("transcription");
-
-                        // Set the transcribed text to the source text field
-                        runOnUiThread(() -> {
-                            sourceText.setText(transcription);
-                            // Dismiss the progress dialog
-                            dismissProgressDialog();
-                        });
-
-                    } catch (JSONException e) {
-                        Log.e(TAG, "Error parsing response", e);
-                        Toast.makeText(Translator.this, "Error processing transcription", Toast.LENGTH_SHORT).show();
-                        dismissProgressDialog();
-                    }
-                },
-                error -> {
-                    Log.e(TAG, "ASR request failed: " + error.toString(), error);
-                    Toast.makeText(Translator.this, "Error connecting to server", Toast.LENGTH_SHORT).show();
-                    dismissProgressDialog();
-                }
-        ) {
-            @Override
-            protected Map<String, String> getParams() {
-                Map<String, String> params = new HashMap<>();
-                params.put("language", language);
-                return params;
-            }
-
-            @Override
-            protected Map<String, DataPart> getByteData() {
-                Map<String, DataPart> params = new HashMap<>();
-                try {
-                    File audioFile = new File(audioFilePath);
-                    byte[] fileData = readFileToByteArray(audioFile);
-                    params.put("audio", new DataPart("audio.m4a", fileData, "audio/wav"));
-                } catch (IOException e) {
-                    Log.e(TAG, "Error reading audio file", e);
-                }
-                return params;
-            }
-        };
-
-        // Set a longer timeout for the request (30 seconds)
-        multipartRequest.setRetryPolicy(new DefaultRetryPolicy(
-                30000,
-                DefaultRetryPolicy.DEFAULT_MAX_RETRIES,
-                DefaultRetryPolicy.DEFAULT_BACKOFF_MULT));
-
-        requestQueue.add(multipartRequest);
-    }
-
     private void sendTextToFlask(String text, String language) {
+        // Phrases spoken before are already on disk
+        File cachedAudio = ttsAudioCache.get(text, language);
+        if (cachedAudio != null) {
+            dismissProgressDialog();
+            playAudioFile(cachedAudio.getAbsolutePath());
+            return;
+        }
+
         JSONObject jsonBody = new JSONObject();
         try {
             jsonBody.put("text", text);
@@ -578,16 +655,16 @@ public class Translator extends AppCompatActivity {
         }
 
         // Set up the full URL
-        String fullUrl = FLASK_BASE_URL + FLASK_TTS_ENDPOINT;
+        String fullUrl = NetworkClient.FLASK_BASE_URL + FLASK_TTS_ENDPOINT;
 
         JsonObjectRequest jsonRequest = new JsonObjectRequest(Request.Method.POST, fullUrl, jsonBody,
                 response -> {
                     try {
                         String fileUrl = response.getString("file_url");
-                        String fullAudioUrl = FLASK_BASE_URL + fileUrl;
+                        String fullAudioUrl = NetworkClient.FLASK_BASE_URL + fileUrl;
 
                         // Download and play the audio
-                        downloadAndPlayAudio(fullAudioUrl);
+                        downloadAndPlayAudio(fullAudioUrl, text, language);
                     } catch (JSONException e) {
                         Log.e(TAG, "Error parsing response", e);
                         Toast.makeText(Translator.this, "Error processing server response", Toast.LENGTH_SHORT).show();
@@ -609,276 +686,155 @@ public class Translator extends AppCompatActivity {
                 DefaultRetryPolicy.DEFAULT_MAX_RETRIES,
                 DefaultRetryPolicy.DEFAULT_BACKOFF_MULT));
 
+        jsonRequest.setTag(TAG);
         requestQueue.add(jsonRequest);
     }
 
-    private void sendTextForTranslation(String text, String sourceLanguage, String targetLanguage) {
-        JSONObject jsonBody = new JSONObject();
-        try {
-            jsonBody.put("text", text);
-            jsonBody.put("source_language", sourceLanguage);
-            jsonBody.put("target_language", targetLanguage);
-        } catch (JSONException e) {
-            e.printStackTrace();
+    private void sendTextForTranslation(String text, String sourceLanguage, String targetLanguage, boolean live) {
+        translationInFlight = true;
+
+        // Paragraphs go out as one batch so each sentence can be shown as soon as it is ready
+        List<String> sentences = BatchTranslationClient.splitSentences(text);
+        if (sentences.size() > 1) {
+            sendBatchForTranslation(text, sentences, sourceLanguage, targetLanguage, live);
+            return;
         }
 
-        // Set up the full URL
-        String fullUrl = FLASK_BASE_URL + FLASK_TRANSLATION_ENDPOINT;
-
-        JsonObjectRequest jsonRequest = new JsonObjectRequest(Request.Method.POST, fullUrl, jsonBody,
-                response -> {
-                    try {
-                        String translatedText = response.getString("translated_text");
+        translationEngine.translate(text, sourceLanguage, targetLanguage, TRANSLATE_REQUEST_TAG,
+                new TranslationEngine.Callback() {
+                    @Override
+                    public void onSuccess(String translatedText) {
+                        translationCache.put(text, sourceLanguage, targetLanguage, translatedText);
 
                         // Update the UI with the translated text
-                        runOnUiThread(() -> {
-                            TextView translatedTextView = findViewById(R.id.translatedText);
-                            translatedTextView.setText(translatedText);
+                        showTranslatedText(translatedText);
 
-                            // Enable the copy button when translation is successful
-                            copyButton.setEnabled(true);
-                            copyButton.setAlpha(1.0f);
-
-                            // Dismiss the progress dialog
-                            dismissProgressDialog();
-                        });
-                    } catch (JSONException e) {
-                        Log.e(TAG, "Error parsing translation response", e);
-                        Toast.makeText(Translator.this, "Error processing translation response", Toast.LENGTH_SHORT).show();
+                        // Dismiss the progress dialog
                         dismissProgressDialog();
+                        onTranslationFinished();
                     }
-                },
-                error -> {
-                    Log.e(TAG, "Translation request failed: " + error.toString(), error);
-                    Toast.makeText(Translator.this, "Error connecting to translation server", Toast.LENGTH_SHORT).show();
-                    dismissProgressDialog();
-                }
-        );
-
-        // Set a timeout for the request (30 seconds)
-        jsonRequest.setRetryPolicy(new DefaultRetryPolicy(
-                30000,
-                DefaultRetryPolicy.DEFAULT_MAX_RETRIES,
-                DefaultRetryPolicy.DEFAULT_BACKOFF_MULT));
 
-        requestQueue.add(jsonRequest);
+                    @Override
+                    public void onError(Exception error) {
+                        // Live translations fail quietly; the next keystroke or a tap retries
+                        if (!live) {
+                            Toast.makeText(Translator.this, "Error connecting to translation server", Toast.LENGTH_SHORT).show();
+                        } else {
+                            currentTranslationKey = null;
+                        }
+                        dismissProgressDialog();
+                        onTranslationFinished();
+                    }
+                });
     }
 
-    private void downloadAndPlayAudio(String audioUrl) {
-        new Thread(() -> {
-            HttpURLConnection connection = null;
-            InputStream input = null;
-            FileOutputStream output = null;
-
-            try {
-                // Create a temporary file
-                File tempFile = File.createTempFile("tts_audio", ".wav", getCacheDir());
-                final File audioFile = tempFile;
-
-                // Set up the connection
-                URL url = new URL(audioUrl);
-                connection = (HttpURLConnection) url.openConnection();
-                connection.setConnectTimeout(15000);
-                connection.setReadTimeout(15000);
-                connection.connect();
-
-                if (connection.getResponseCode() != HttpURLConnection.HTTP_OK) {
-                    Log.e(TAG, "Server returned HTTP " + connection.getResponseCode() + " " + connection.getResponseMessage());
-                    runOnUiThread(() -> Toast.makeText(Translator.this, "Error downloading audio", Toast.LENGTH_SHORT).show());
-                    return;
-                }
-
-                // Download the file
-                input = connection.getInputStream();
-                output = new FileOutputStream(audioFile);
-
-                byte[] buffer = new byte[4096];
-                int bytesRead;
-                while ((bytesRead = input.read(buffer)) != -1) {
-                    output.write(buffer, 0, bytesRead);
-                }
-
-                output.flush();
-
-                runOnUiThread(() -> playAudioFile(audioFile.getAbsolutePath()));
+    private void sendBatchForTranslation(String text, List<String> sentences, String sourceLanguage,
+                                         String targetLanguage, boolean live) {
+        String[] translated = new String[sentences.size()];
+        batchTranslationCall = batchTranslationClient.translate(sentences, sourceLanguage, targetLanguage,
+                new BatchTranslationClient.Listener() {
+                    @Override
+                    public void onSentenceTranslated(int index, String translatedText) {
+                        translated[index] = translatedText;
+                        showTranslatedText(joinSentences(translated));
+
+                        // The first sentence is enough to take the dialog down
+                        dismissProgressDialog();
+                    }
 
-            } catch (IOException e) {
-                Log.e(TAG, "Error downloading audio", e);
-                runOnUiThread(() -> Toast.makeText(Translator.this, "Error downloading audio: " + e.getMessage(), Toast.LENGTH_SHORT).show());
-            } finally {
-                try {
-                    if (output != null) output.close();
-                    if (input != null) input.close();
-                } catch (IOException e) {
-                    Log.e(TAG, "Error closing streams", e);
-                }
-                if (connection != null) connection.disconnect();
-            }
-        }).start();
+                    @Override
+                    public void onComplete(int failedCount) {
+                        batchTranslationCall = null;
+                        if (failedCount == 0) {
+                            translationCache.put(text, sourceLanguage, targetLanguage, joinSentences(translated));
+                        } else if (live) {
+                            currentTranslationKey = null;
+                        } else {
+                            Toast.makeText(Translator.this, "Some sentences could not be translated", Toast.LENGTH_SHORT).show();
+                        }
+                        dismissProgressDialog();
+                        onTranslationFinished();
+                    }
+                });
     }
 
-    private void playAudioFile(String filePath) {
-        MediaPlayer mediaPlayer = new MediaPlayer();
-        try {
-            mediaPlayer.setDataSource(filePath);
-            mediaPlayer.prepare();
-
-            // Add a completion listener to release resources when done
-            mediaPlayer.setOnCompletionListener(mp -> {
-                mp.release();
-                Log.d(TAG, "Audio playback completed");
-            });
-
-            mediaPlayer.start();
-        } catch (Exception e) {
-            Log.e(TAG, "Error playing audio", e);
-            Toast.makeText(this, "Error playing audio", Toast.LENGTH_SHORT).show();
-            mediaPlayer.release();
+    // Joins translated sentences in order, marking ones still in progress
+    private static String joinSentences(String[] translated) {
+        StringBuilder sb = new StringBuilder();
+        for (String sentence : translated) {
+            if (sb.length() > 0) sb.append(' ');
+            sb.append(sentence != null ? sentence : "…");
         }
+        return sb.toString();
     }
 
-    // Helper method to read file to byte array
-    private byte[] readFileToByteArray(File file) throws IOException {
-        FileInputStream fis = new FileInputStream(file);
-        ByteArrayOutputStream bos = new ByteArrayOutputStream();
-        byte[] buffer = new byte[1024];
-        int read;
-
-        while ((read = fis.read(buffer)) != -1) {
-            bos.write(buffer, 0, read);
-        }
+    private void showTranslatedText(String translatedText) {
+        TextView translatedTextView = findViewById(R.id.translatedText);
+        translatedTextView.setText(translatedText);
 
-        fis.close();
-        return bos.toByteArray();
+        // Enable the copy button when translation is successful
+        copyButton.setEnabled(true);
+        copyButton.setAlpha(1.0f);
     }
 
-    // Custom Volley request for multipart form data
-    public class VolleyMultipartRequest extends Request<NetworkResponse> {
-        private final Response.Listener<NetworkResponse> mListener;
-        private final Map<String, String> mParams;
-        private final Map<String, DataPart> mByteData;
-
-        public VolleyMultipartRequest(int method, String url,
-                                      Response.Listener<NetworkResponse> listener,
-                                      Response.ErrorListener errorListener) {
-            super(method, url, errorListener);
-            this.mListener = listener;
-            this.mParams = new HashMap<>();
-            this.mByteData = new HashMap<>();
-        }
+    private void downloadAndPlayAudio(String audioUrl, String text, String language) {
+        // Start the player right away; it decodes from the stream as bytes arrive
+        StreamingAudioSource streamSource = new StreamingAudioSource();
+        playAudioStream(streamSource);
 
-        @Override
-        protected Response<NetworkResponse> parseNetworkResponse(NetworkResponse response) {
-            return Response.success(response, HttpHeaderParser.parseCacheHeaders(response));
-        }
-
-        @Override
-        protected void deliverResponse(NetworkResponse response) {
-            mListener.onResponse(response);
-        }
-
-        @Override
-        public Map<String, String> getHeaders() throws AuthFailureError {
-            return super.getHeaders();
-        }
-
-        protected Map<String, String> getParams() {
-            return mParams;
-        }
-
-        protected Map<String, DataPart> getByteData() {
-            return mByteData;
-        }
-
-        @Override
-        public String getBodyContentType() {
-            return "multipart/form-data; boundary=" + boundary;
-        }
-
-        @Override
-        public byte[] getBody() throws AuthFailureError {
-            ByteArrayOutputStream bos = new ByteArrayOutputStream();
-            try {
-                // Add string params
-                Map<String, String> params = getParams();
-                if (params != null && params.size() > 0) {
-                    textParse(bos, params);
-                }
-
-                // Add data byte params
-                Map<String, DataPart> data = getByteData();
-                if (data != null && data.size() > 0) {
-                    dataParse(bos, data);
-                }
-
-                // Close multipart form data
-                bos.write(("--" + boundary + "--\r\n").getBytes());
-
-                return bos.toByteArray();
-            } catch (IOException e) {
-                e.printStackTrace();
-                return null;
-            }
-        }
-
-        private final String boundary = "apiclient-" + System.currentTimeMillis();
-        private final String lineEnd = "\r\n";
-        private final String twoHyphens = "--";
-
-        private void textParse(ByteArrayOutputStream bos, Map<String, String> params) throws IOException {
-            for (Map.Entry<String, String> entry : params.entrySet()) {
-                bos.write((twoHyphens + boundary + lineEnd).getBytes());
-                bos.write(("Content-Disposition: form-data; name=\"" + entry.getKey() + "\"" + lineEnd).getBytes());
-                bos.write(lineEnd.getBytes());
-                bos.write(entry.getValue().getBytes());
-                bos.write(lineEnd.getBytes());
-            }
-        }
-
-        private void dataParse(ByteArrayOutputStream bos, Map<String, DataPart> data) throws IOException {
-            for (Map.Entry<String, DataPart> entry : data.entrySet()) {
-                DataPart dp = entry.getValue();
-                bos.write((twoHyphens + boundary + lineEnd).getBytes());
-                bos.write(("Content-Disposition: form-data; name=\"" +
-                        entry.getKey() + "\"; filename=\"" + dp.getFileName() + "\"" + lineEnd).getBytes());
-                if (dp.getType() != null && !dp.getType().isEmpty()) {
-                    bos.write(("Content-Type: " + dp.getType() + lineEnd).getBytes());
-                }
-                bos.write((lineEnd).getBytes());
-
-                bos.write(dp.getContent());
-                bos.write(lineEnd.getBytes());
+        okhttp3.Request request = new okhttp3.Request.Builder().url(audioUrl).build();
+        NetworkClient.getInstance(this).getHttpClient().newCall(request).enqueue(new okhttp3.Callback() {
+            @Override
+            public void onFailure(@NonNull okhttp3.Call call, @NonNull IOException e) {
+                Log.e(TAG, "Error downloading audio", e);
+                streamSource.fail(e);
             }
-        }
-
-        public class DataPart {
-            private String fileName;
-            private byte[] content;
-            private String type;
 
-            public DataPart(String name, byte[] data) {
-                fileName = name;
-                content = data;
-            }
+            @Override
+            public void onResponse(@NonNull okhttp3.Call call, @NonNull okhttp3.Response response) {
+                File partialFile = null;
+                try (okhttp3.Response r = response) {
+                    if (!r.isSuccessful() || r.body() == null) {
+                        Log.e(TAG, "Server returned HTTP " + r.code() + " " + r.message());
+                        streamSource.fail(new IOException("HTTP " + r.code()));
+                        return;
+                    }
 
-            public DataPart(String name, byte[] data, String mimeType) {
-                fileName = name;
-                content = data;
-                type = mimeType;
-            }
+                    // Download next to the cache entry and move it into place when complete
+                    partialFile = ttsAudioCache.newPartialFile(text, language);
+
+                    // Feed the player and the cache file from the same download
+                    try (InputStream input = r.body().byteStream();
+                         FileOutputStream output = new FileOutputStream(partialFile)) {
+                        byte[] buffer = new byte[16 * 1024];
+                        int bytesRead;
+                        while ((bytesRead = input.read(buffer)) != -1) {
+                            streamSource.append(buffer, bytesRead);
+                            output.write(buffer, 0, bytesRead);
+                        }
+                    }
 
-            public String getFileName() {
-                return fileName;
+                    streamSource.finish();
+                    ttsAudioCache.commit(text, language, partialFile);
+                    partialFile = null;
+                } catch (IOException e) {
+                    Log.e(TAG, "Error downloading audio", e);
+                    streamSource.fail(e);
+                } finally {
+                    if (partialFile != null) partialFile.delete();
+                }
             }
+        });
+    }
 
-            public byte[] getContent() {
-                return content;
-            }
+    private void playAudioStream(StreamingAudioSource streamSource) {
+        AudioPlaybackEngine.getInstance(this).play(this, streamSource,
+                AudioPlaybackEngine.PRIORITY_SPEECH, playbackListener);
+    }
 
-            public String getType() {
-                return type;
-            }
-        }
+    private void playAudioFile(String filePath) {
+        AudioPlaybackEngine.getInstance(this).play(this, filePath,
+                AudioPlaybackEngine.PRIORITY_SPEECH, playbackListener);
     }
 
     @Override
@@ -907,6 +863,10 @@ public class Translator extends AppCompatActivity {
 
     @Override
     protected void onDestroy() {
+        // Stop live translation and this screen's requests on the shared queue
+        cancelTranslation();
+        requestQueue.cancelAll(TAG);
+
         // Dismiss the progress dialog
         dismissProgressDialog();
 
@@ -917,10 +877,13 @@ public class Translator extends AppCompatActivity {
         unregisterNetworkCallback();
 
         // Clean up recording resources
-        if (mediaRecorder != null) {
-            mediaRecorder.release();
-            mediaRecorder = null;
+        if (asrSession != null) {
+            asrSession.cancel();
+            asrSession = null;
         }
+
+        // Stop speech that is still playing
+        AudioPlaybackEngine.getInstance(this).stop(this);
         super.onDestroy();
     }
 
@@ -0,0 +1,86 @@
+package com.translator.kapamtalk;
+
+import android.content.Context;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Content-addressed store for synthesized speech. Files are named by a hash of
+ * (language, text), so speaking the same phrase twice plays straight from disk,
+ * and the directory is trimmed least-recently-used first to a fixed size.
+ */
+public class TtsAudioCache {
+
+    private static final String DISK_DIR = "tts_audio";
+    private static final long DISK_MAX_BYTES = 20L * 1024 * 1024;
+    private static final String AUDIO_EXTENSION = ".wav";
+
+    private static TtsAudioCache instance;
+
+    private final File diskDir;
+    private final ExecutorService trimExecutor = Executors.newSingleThreadExecutor();
+
+    private TtsAudioCache(Context context) {
+        diskDir = new File(context.getApplicationContext().getCacheDir(), DISK_DIR);
+        trimExecutor.execute(() -> {
+            if (!diskDir.exists()) {
+                diskDir.mkdirs();
+            }
+            // Drop downloads interrupted by a previous process; this one's are kept
+            DiskCacheUtils.deleteStalePartialFiles(diskDir);
+            DiskCacheUtils.trimDirectory(diskDir, DISK_MAX_BYTES, 0);
+        });
+    }
+
+    public static synchronized TtsAudioCache getInstance(Context context) {
+        if (instance == null) {
+            instance = new TtsAudioCache(context);
+        }
+        return instance;
+    }
+
+    /**
+     * Returns the cached audio for this phrase, or null if it has not been synthesized yet.
+     */
+    public File get(String text, String language) {
+        File file = fileFor(text, language);
+        if (!file.isFile() || file.length() == 0) return null;
+        DiskCacheUtils.touch(file);
+        return file;
+    }
+
+    /**
+     * A scratch file to download into; hand it to {@link #commit} once complete.
+     */
+    public File newPartialFile(String text, String language) throws IOException {
+        if (!diskDir.exists() && !diskDir.mkdirs()) {
+            throw new IOException("Cannot create " + diskDir);
+        }
+        return DiskCacheUtils.createPartialFile(diskDir, key(text, language));
+    }
+
+    /**
+     * Moves a finished download into place and returns the cached file.
+     */
+    public File commit(String text, String language, File partialFile) throws IOException {
+        File file = fileFor(text, language);
+        if (!partialFile.renameTo(file)) {
+            partialFile.delete();
+            throw new IOException("Cannot move " + partialFile + " to " + file);
+        }
+        trimExecutor.execute(() -> DiskCacheUtils.trimDirectory(diskDir, DISK_MAX_BYTES, 0));
+        return file;
+    }
+
+    private File fileFor(String text, String language) {
+        return new File(diskDir, key(text, language) + AUDIO_EXTENSION);
+    }
+
+    private static String key(String text, String language) {
+        return DiskCacheUtils.sha256Hex(language.toLowerCase(Locale.ROOT) + '\n' + text.trim());
+    }
+}
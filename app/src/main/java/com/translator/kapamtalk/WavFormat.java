@@ -0,0 +1,63 @@
+package com.translator.kapamtalk;
+
+/**
+ * Canonical 44-byte WAV headers for 16-bit mono PCM, as recorded by the app.
+ */
+final class WavFormat {
+    static final int HEADER_BYTES = 44;
+
+    private WavFormat() {
+    }
+
+    static byte[] header(int sampleRate, long dataBytes) {
+        byte[] header = new byte[HEADER_BYTES];
+        writeHeader(header, sampleRate, dataBytes);
+        return header;
+    }
+
+    /**
+     * A complete WAV file for pcm[offset, offset + length).
+     */
+    static byte[] encode(short[] pcm, int offset, int length, int sampleRate) {
+        byte[] wav = new byte[HEADER_BYTES + length * 2];
+        writeHeader(wav, sampleRate, length * 2L);
+        for (int i = 0; i < length; i++) {
+            writeShortLe(wav, HEADER_BYTES + i * 2, pcm[offset + i]);
+        }
+        return wav;
+    }
+
+    private static void writeHeader(byte[] buffer, int sampleRate, long dataBytes) {
+        writeAscii(buffer, 0, "RIFF");
+        writeIntLe(buffer, 4, (int) (36 + dataBytes));
+        writeAscii(buffer, 8, "WAVE");
+        writeAscii(buffer, 12, "fmt ");
+        writeIntLe(buffer, 16, 16);
+        writeShortLe(buffer, 20, 1);
+        writeShortLe(buffer, 22, 1);
+        writeIntLe(buffer, 24, sampleRate);
+        writeIntLe(buffer, 28, sampleRate * 2);
+        writeShortLe(buffer, 32, 2);
+        writeShortLe(buffer, 34, 16);
+        writeAscii(buffer, 36, "data");
+        writeIntLe(buffer, 40, (int) dataBytes);
+    }
+
+    private static void writeAscii(byte[] buffer, int offset, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            buffer[offset + i] = (byte) value.charAt(i);
+        }
+    }
+
+    private static void writeIntLe(byte[] buffer, int offset, int value) {
+        buffer[offset] = (byte) value;
+        buffer[offset + 1] = (byte) (value >> 8);
+        buffer[offset + 2] = (byte) (value >> 16);
+        buffer[offset + 3] = (byte) (value >> 24);
+    }
+
+    private static void writeShortLe(byte[] buffer, int offset, int value) {
+        buffer[offset] = (byte) value;
+        buffer[offset + 1] = (byte) (value >> 8);
+    }
+}
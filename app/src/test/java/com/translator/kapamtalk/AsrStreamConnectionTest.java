@@ -0,0 +1,173 @@
+package com.translator.kapamtalk;
+
+import androidx.annotation.NonNull;
+
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.OkHttpClient;
+import okhttp3.WebSocket;
+import okhttp3.WebSocketListener;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okio.ByteString;
+
+import static org.junit.Assert.*;
+
+public class AsrStreamConnectionTest {
+
+    private final MockWebServer server = new MockWebServer();
+    private final OkHttpClient httpClient = new OkHttpClient();
+    private final Recorder recorder = new Recorder();
+
+    @Before
+    public void setUp() throws Exception {
+        server.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void streamsAudioAndDeliversTranscriptions() throws Exception {
+        // Everything the client sends, in order; text messages as strings, frames as byte counts
+        BlockingQueue<Object> received = new LinkedBlockingQueue<>();
+        server.enqueue(new MockResponse().withWebSocketUpgrade(new ServerSocket() {
+            @Override
+            public void onMessage(@NonNull WebSocket webSocket, @NonNull String text) {
+                received.add(text);
+                if (text.contains("\"end\"")) {
+                    webSocket.send("{\"transcription\": \"mayap a abak\", \"final\": true}");
+                }
+            }
+
+            @Override
+            public void onMessage(@NonNull WebSocket webSocket, @NonNull ByteString bytes) {
+                received.add(bytes.size());
+                webSocket.send("{\"partial\": \"mayap\"}");
+            }
+        }));
+
+        AsrStreamConnection connection = connect();
+        byte[] pcm = new byte[3200];
+        connection.sendAudio(pcm, 0, pcm.length);
+        connection.sendAudio(pcm, 0, 1000);
+        connection.end();
+
+        assertTrue(recorder.finished.await(5, TimeUnit.SECONDS));
+        assertEquals("mayap a abak", recorder.finalText);
+        assertEquals("mayap", recorder.partials.get(0));
+        assertEquals(0, recorder.failures.get());
+
+        JSONObject config = new JSONObject((String) received.poll(5, TimeUnit.SECONDS));
+        assertEquals("kapampangan", config.getString("language"));
+        assertEquals(16000, config.getInt("sample_rate"));
+        assertEquals("pcm_s16le", config.getString("encoding"));
+        assertEquals(3200, received.poll(5, TimeUnit.SECONDS));
+        assertEquals(1000, received.poll(5, TimeUnit.SECONDS));
+        assertEquals("end", new JSONObject((String) received.poll(5, TimeUnit.SECONDS)).getString("event"));
+        assertEquals("/asr_stream", server.takeRequest().getPath());
+    }
+
+    @Test
+    public void serverErrorFailsTheStreamOnce() throws Exception {
+        server.enqueue(new MockResponse().withWebSocketUpgrade(new ServerSocket() {
+            @Override
+            public void onMessage(@NonNull WebSocket webSocket, @NonNull String text) {
+                webSocket.send("{\"error\": \"model not loaded\"}");
+            }
+        }));
+
+        AsrStreamConnection connection = connect();
+
+        assertTrue(recorder.finished.await(5, TimeUnit.SECONDS));
+        assertTrue(connection.hasFailed());
+        // Nothing more is sent once the stream has failed
+        connection.sendAudio(new byte[320], 0, 320);
+        connection.end();
+        Thread.sleep(200);
+        assertEquals(1, recorder.failures.get());
+        assertNull(recorder.finalText);
+    }
+
+    @Test
+    public void missingEndpointFailsTheStream() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(404));
+
+        AsrStreamConnection connection = connect();
+
+        assertTrue(recorder.finished.await(5, TimeUnit.SECONDS));
+        assertTrue(connection.hasFailed());
+        assertEquals(1, recorder.failures.get());
+    }
+
+    @Test
+    public void cancelIsNotReportedAsFailure() throws Exception {
+        CountDownLatch opened = new CountDownLatch(1);
+        server.enqueue(new MockResponse().withWebSocketUpgrade(new ServerSocket() {
+            @Override
+            public void onMessage(@NonNull WebSocket webSocket, @NonNull String text) {
+                opened.countDown();
+            }
+        }));
+
+        AsrStreamConnection connection = connect();
+        assertTrue(opened.await(5, TimeUnit.SECONDS));
+        connection.cancel();
+
+        Thread.sleep(200);
+        assertTrue(connection.hasFailed());
+        assertEquals(0, recorder.failures.get());
+    }
+
+    private AsrStreamConnection connect() {
+        String baseUrl = server.url("").toString().replaceAll("/$", "");
+        AsrStreamConnection connection = new AsrStreamConnection(httpClient, baseUrl, "kapampangan", 16000, recorder);
+        connection.open();
+        return connection;
+    }
+
+    // Answers the client's close handshake so the server can shut down promptly
+    private static class ServerSocket extends WebSocketListener {
+        @Override
+        public void onClosing(@NonNull WebSocket webSocket, int code, @NonNull String reason) {
+            webSocket.close(code, null);
+        }
+    }
+
+    private static class Recorder implements AsrStreamConnection.Callback {
+        final List<String> partials = new CopyOnWriteArrayList<>();
+        final AtomicInteger failures = new AtomicInteger();
+        final CountDownLatch finished = new CountDownLatch(1);
+        volatile String finalText;
+
+        @Override
+        public void onPartial(String text) {
+            partials.add(text);
+        }
+
+        @Override
+        public void onFinal(String transcription) {
+            finalText = transcription;
+            finished.countDown();
+        }
+
+        @Override
+        public void onFailure() {
+            failures.incrementAndGet();
+            finished.countDown();
+        }
+    }
+}
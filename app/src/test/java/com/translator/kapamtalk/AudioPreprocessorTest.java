@@ -0,0 +1,100 @@
+package com.translator.kapamtalk;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class AudioPreprocessorTest {
+
+    private static final int RATE = 16_000;
+    // 200 ms of padding around the speech
+    private static final int PADDING = RATE / 5;
+
+    @Test
+    public void boundsArePaddedAroundTheSpeech() {
+        short[] pcm = concat(tone(RATE, 60, 30), tone(RATE / 2, 440, 8000), tone(RATE, 60, 30));
+        int[] bounds = AudioPreprocessor.findSpeechBounds(pcm, pcm.length, RATE);
+        assertArrayEquals(new int[] {RATE - PADDING, RATE + RATE / 2 + PADDING}, bounds);
+    }
+
+    @Test
+    public void paddingStopsAtTheEdges() {
+        short[] pcm = concat(tone(RATE / 10, 440, 8000), tone(RATE, 60, 30), tone(RATE / 10, 440, 8000));
+        int[] bounds = AudioPreprocessor.findSpeechBounds(pcm, pcm.length, RATE);
+        assertArrayEquals(new int[] {0, pcm.length}, bounds);
+    }
+
+    @Test
+    public void steadyHumIsNotSpeech() {
+        // About -45 dBFS throughout, with a louder word in the middle
+        short[] pcm = concat(tone(RATE, 100, 260), tone(RATE / 2, 440, 8000), tone(RATE, 100, 260));
+        int[] bounds = AudioPreprocessor.findSpeechBounds(pcm, pcm.length, RATE);
+        assertArrayEquals(new int[] {RATE - PADDING, RATE + RATE / 2 + PADDING}, bounds);
+    }
+
+    @Test
+    public void takeThatIsAlmostAllSpeechIsKept() {
+        // Under a tenth of the frames are background, so the quietest tenth reaches into the speech
+        short[] pcm = concat(tone(3 * RATE / 10, 60, 30), tone(3 * RATE, 440, 8000));
+        int[] bounds = AudioPreprocessor.findSpeechBounds(pcm, pcm.length, RATE);
+        assertArrayEquals(new int[] {3 * RATE / 10 - PADDING, pcm.length}, bounds);
+    }
+
+    @Test
+    public void onlyTheGivenLengthIsSearched() {
+        short[] pcm = concat(tone(RATE, 60, 30), tone(RATE / 2, 440, 8000), tone(RATE, 60, 30));
+        int[] bounds = AudioPreprocessor.findSpeechBounds(pcm, RATE, RATE);
+        assertArrayEquals(new int[] {0, RATE}, bounds);
+    }
+
+    @Test
+    public void silenceKeepsTheWholeRecording() {
+        short[] pcm = new short[RATE];
+        assertArrayEquals(new int[] {0, RATE}, AudioPreprocessor.findSpeechBounds(pcm, pcm.length, RATE));
+        assertArrayEquals(new int[] {0, 0}, AudioPreprocessor.findSpeechBounds(new short[0], 0, RATE));
+        // Shorter than one frame
+        assertArrayEquals(new int[] {0, 100}, AudioPreprocessor.findSpeechBounds(tone(100, 440, 8000), 100, RATE));
+    }
+
+    @Test
+    public void frameLevelsAreInDbfs() {
+        double[] levels = AudioPreprocessor.frameLevels(tone(RATE / 10, 1000, 16384), RATE / 10, RATE);
+        assertEquals(5, levels.length);
+        // A half-scale sine is 3 dB below half scale
+        for (double level : levels) {
+            assertEquals(-9.03, level, 0.05);
+        }
+        assertEquals(-120.0, AudioPreprocessor.frameDbfs(new short[320], 0, 320), 0);
+    }
+
+    @Test
+    public void adtsHeaderDescribesMonoAacLcFrames() {
+        int index = AudioPreprocessor.adtsFrequencyIndex(RATE);
+        assertEquals(8, index);
+        assertEquals(-1, AudioPreprocessor.adtsFrequencyIndex(12345));
+
+        // The 13-bit frame length, 371 + 7 bytes, is split across bytes 3 to 5
+        byte[] header = AudioPreprocessor.adtsHeader(index, 371);
+        assertArrayEquals(new byte[] {(byte) 0xFF, (byte) 0xF1, 0x60, 0x40, 0x2F, 0x5F, (byte) 0xFC}, header);
+    }
+
+    static short[] tone(int samples, double frequency, int amplitude) {
+        short[] pcm = new short[samples];
+        for (int i = 0; i < samples; i++) {
+            pcm[i] = (short) Math.round(amplitude * Math.sin(2 * Math.PI * frequency * i / RATE));
+        }
+        return pcm;
+    }
+
+    static short[] concat(short[]... parts) {
+        int length = 0;
+        for (short[] part : parts) length += part.length;
+        short[] pcm = new short[length];
+        int offset = 0;
+        for (short[] part : parts) {
+            System.arraycopy(part, 0, pcm, offset, part.length);
+            offset += part.length;
+        }
+        return pcm;
+    }
+}
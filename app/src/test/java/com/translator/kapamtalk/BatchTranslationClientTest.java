@@ -0,0 +1,210 @@
+package com.translator.kapamtalk;
+
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import static org.junit.Assert.*;
+
+public class BatchTranslationClientTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final MockWebServer server = new MockWebServer();
+    private final OkHttpClient httpClient = new OkHttpClient();
+    private final ExecutorService mainThread = Executors.newSingleThreadExecutor();
+    private final FakeEngine engine = new FakeEngine();
+    private TranslationCache cache;
+
+    @Before
+    public void setUp() throws Exception {
+        server.start();
+        cache = new TranslationCache(temporaryFolder.newFolder("translations"));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        mainThread.shutdownNow();
+        server.shutdown();
+    }
+
+    @Test
+    public void streamedLinesAreDeliveredAsTheyArrive() throws Exception {
+        server.enqueue(new MockResponse()
+                .setHeader("Content-Type", "application/x-ndjson")
+                .setBody("{\"index\": 1, \"translated_text\": \"Ali ku balu.\"}\n"
+                        + "\n"
+                        + "{\"index\": 0, \"translated_text\": \"Mayap a abak.\"}\n"));
+        Recorder recorder = new Recorder();
+
+        client("/stream").translate(Arrays.asList("Good morning.", "I don't know."), "english", "kapampangan", recorder);
+
+        assertTrue(recorder.complete.await(5, TimeUnit.SECONDS));
+        assertEquals(0, recorder.failedCount.get());
+        assertEquals("Mayap a abak.", recorder.translations.get(0));
+        assertEquals("Ali ku balu.", recorder.translations.get(1));
+        assertEquals(Arrays.asList(1, 0), recorder.order);
+        assertTrue(engine.requested.isEmpty());
+
+        RecordedRequest request = server.takeRequest();
+        assertEquals("/stream/translate_batch", request.getPath());
+        JSONObject body = new JSONObject(request.getBody().readUtf8());
+        assertEquals(2, body.getJSONArray("texts").length());
+        assertEquals("english", body.getString("source_language"));
+        assertEquals("kapampangan", body.getString("target_language"));
+    }
+
+    @Test
+    public void singleArrayResponseIsAccepted() throws Exception {
+        server.enqueue(new MockResponse()
+                .setBody("{\"translations\": [\"Mayap a abak.\", \"Ali ku balu.\"]}"));
+        Recorder recorder = new Recorder();
+
+        client("/array").translate(Arrays.asList("Good morning.", "I don't know."), "english", "kapampangan", recorder);
+
+        assertTrue(recorder.complete.await(5, TimeUnit.SECONDS));
+        assertEquals("Mayap a abak.", recorder.translations.get(0));
+        assertEquals("Ali ku balu.", recorder.translations.get(1));
+    }
+
+    @Test
+    public void sentencesMissingFromTheStreamAreRetriedIndividually() throws Exception {
+        server.enqueue(new MockResponse()
+                .setBody("{\"index\": 0, \"translated_text\": \"Mayap a abak.\"}\n"));
+        Recorder recorder = new Recorder();
+
+        client("/partial").translate(Arrays.asList("Good morning.", "I don't know."), "english", "kapampangan", recorder);
+
+        assertTrue(recorder.complete.await(5, TimeUnit.SECONDS));
+        assertEquals("Mayap a abak.", recorder.translations.get(0));
+        assertEquals("engine:I don't know.", recorder.translations.get(1));
+        assertEquals(Collections.singletonList("I don't know."), engine.requested);
+    }
+
+    @Test
+    public void missingBatchEndpointFallsBackAndIsRemembered() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(404));
+        BatchTranslationClient client = client("/legacy");
+
+        Recorder first = new Recorder();
+        client.translate(Arrays.asList("Good morning.", "I don't know."), "english", "kapampangan", first);
+        assertTrue(first.complete.await(5, TimeUnit.SECONDS));
+        assertEquals(0, first.failedCount.get());
+        assertEquals("engine:Good morning.", first.translations.get(0));
+        assertEquals("engine:I don't know.", first.translations.get(1));
+
+        Recorder second = new Recorder();
+        client.translate(Arrays.asList("Thank you.", "Goodbye."), "english", "kapampangan", second);
+        assertTrue(second.complete.await(5, TimeUnit.SECONDS));
+        assertEquals("engine:Goodbye.", second.translations.get(1));
+
+        // The second batch never reached the server
+        assertEquals(1, server.getRequestCount());
+        assertEquals(4, engine.requested.size());
+    }
+
+    @Test
+    public void cancelStopsTheStreamWithoutFallingBack() throws Exception {
+        // The throttle also paces the request body, so the first period must cover all of it
+        StringBuilder firstPeriod = new StringBuilder("{\"index\": 0, \"translated_text\": \"Mayap a abak.\"}\n");
+        while (firstPeriod.length() < 1024) {
+            firstPeriod.append('\n');
+        }
+        // The second line would only arrive after a pause longer than the next batch may take
+        server.enqueue(new MockResponse()
+                .setBody(firstPeriod + "{\"index\": 1, \"translated_text\": \"Ali ku balu.\"}\n")
+                .throttleBody(firstPeriod.length(), 4, TimeUnit.SECONDS));
+        server.enqueue(new MockResponse()
+                .setBody("{\"translations\": [\"Salamat.\", \"Kaku pu.\"]}"));
+        BatchTranslationClient client = client("/cancel");
+
+        CountDownLatch firstDelivered = new CountDownLatch(1);
+        Recorder recorder = new Recorder() {
+            @Override
+            public void onSentenceTranslated(int index, String translatedText) {
+                super.onSentenceTranslated(index, translatedText);
+                firstDelivered.countDown();
+            }
+        };
+        BatchTranslationClient.Call call = client.translate(
+                Arrays.asList("Good morning.", "I don't know."), "english", "kapampangan", recorder);
+        assertTrue(firstDelivered.await(5, TimeUnit.SECONDS));
+        call.cancel();
+
+        // The blocked read is aborted, so the next batch is not stuck behind it
+        Recorder next = new Recorder();
+        client.translate(Arrays.asList("Thank you.", "Goodbye."), "english", "kapampangan", next);
+        assertTrue(next.complete.await(2, TimeUnit.SECONDS));
+        assertEquals("Kaku pu.", next.translations.get(1));
+        assertEquals(0, httpClient.dispatcher().runningCallsCount());
+
+        assertEquals(1, recorder.complete.getCount());
+        assertFalse(recorder.translations.containsKey(1));
+        assertTrue(engine.requested.isEmpty());
+    }
+
+    private BatchTranslationClient client(String path) {
+        String baseUrl = server.url(path).toString();
+        return new BatchTranslationClient(httpClient, baseUrl, engine, cache, mainThread);
+    }
+
+    private static class Recorder implements BatchTranslationClient.Listener {
+        final Map<Integer, String> translations = new ConcurrentHashMap<>();
+        final List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        final AtomicInteger failedCount = new AtomicInteger(-1);
+        final CountDownLatch complete = new CountDownLatch(1);
+
+        @Override
+        public void onSentenceTranslated(int index, String translatedText) {
+            translations.put(index, translatedText);
+            order.add(index);
+        }
+
+        @Override
+        public void onComplete(int failedCount) {
+            this.failedCount.set(failedCount);
+            complete.countDown();
+        }
+    }
+
+    private static class FakeEngine implements TranslationEngine {
+        final List<String> requested = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public boolean supports(String sourceLanguage, String targetLanguage) {
+            return true;
+        }
+
+        @Override
+        public void translate(String text, String sourceLanguage, String targetLanguage, Object tag,
+                              Callback callback) {
+            requested.add(text);
+            callback.onSuccess("engine:" + text);
+        }
+
+        @Override
+        public void cancelAll(Object tag) {
+        }
+    }
+}
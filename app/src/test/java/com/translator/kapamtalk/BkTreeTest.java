@@ -0,0 +1,75 @@
+package com.translator.kapamtalk;
+
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.Assert.*;
+
+public class BkTreeTest {
+
+    private static final String[] KEYS = {"book", "books", "boo", "cook", "back", "", "book"};
+
+    private final BkTree tree = new BkTree(KEYS);
+
+    @Test
+    public void findsKeysWithinTheEditLimit() {
+        Map<Integer, Integer> expected = new TreeMap<>();
+        expected.put(0, 0);
+        expected.put(1, 1);
+        expected.put(2, 1);
+        expected.put(3, 1);
+        expected.put(6, 0);
+        assertEquals(expected, search("book", 1, Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void widerLimitReachesFurtherKeys() {
+        Map<Integer, Integer> matches = search("book", 2, Integer.MAX_VALUE);
+        assertEquals(Integer.valueOf(2), matches.get(4));
+        assertEquals(6, matches.size());
+        assertFalse(matches.containsKey(5));
+    }
+
+    @Test
+    public void exactLimitOnlyFindsEqualKeys() {
+        Map<Integer, Integer> expected = new TreeMap<>();
+        expected.put(0, 0);
+        expected.put(6, 0);
+        assertEquals(expected, search("book", 0, Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void visitCapStopsTheSearch() {
+        // The first visit is the root, which carries every id with the same key
+        Map<Integer, Integer> expected = new TreeMap<>();
+        expected.put(0, 0);
+        expected.put(6, 0);
+        assertEquals(expected, search("book", 1, 1));
+        assertTrue(search("book", 1, 0).isEmpty());
+    }
+
+    @Test
+    public void emptyQueryOrTreeFindsNothing() {
+        assertTrue(search("", 1, Integer.MAX_VALUE).isEmpty());
+
+        BkTree empty = new BkTree(new String[] {"", ""});
+        DictionaryIndex.IntList matches = new DictionaryIndex.IntList();
+        empty.search("a", 3, Integer.MAX_VALUE, matches, new DictionaryIndex.IntList());
+        assertEquals(0, matches.size);
+    }
+
+    // Matched id to its distance from the query
+    private Map<Integer, Integer> search(String query, int maxDistance, int maxVisits) {
+        DictionaryIndex.IntList matches = new DictionaryIndex.IntList();
+        DictionaryIndex.IntList distances = new DictionaryIndex.IntList();
+        tree.search(query, maxDistance, maxVisits, matches, distances);
+
+        Map<Integer, Integer> found = new TreeMap<>();
+        for (int i = 0; i < matches.size; i++) {
+            assertNull("id reported twice", found.put(matches.items[i], distances.items[i]));
+        }
+        return found;
+    }
+}
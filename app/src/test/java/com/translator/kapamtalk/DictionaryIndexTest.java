@@ -0,0 +1,100 @@
+package com.translator.kapamtalk;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class DictionaryIndexTest {
+
+    private static final List<DictionaryEntry> KAPAMPANGAN = Arrays.asList(
+            new DictionaryEntry("Mayap a abak", "Good morning", "ma-yap a a-bak"),
+            new DictionaryEntry("mayap", "good", "ma-yap"),
+            new DictionaryEntry("mayap a gatpanapun", "good afternoon", ""),
+            new DictionaryEntry("abak", "morning", "a-bak"),
+            new DictionaryEntry("bale", "house", "ba-le"),
+            new DictionaryEntry("Kumusta", "How are you", "ku-mus-ta"));
+
+    private final DictionaryIndex index = new DictionaryIndex(KAPAMPANGAN, false);
+
+    @Test
+    public void exactMatchRanksAbovePrefixMatches() {
+        assertEquals(Arrays.asList("mayap", "Mayap a abak", "mayap a gatpanapun"), words(index.search("mayap")));
+    }
+
+    @Test
+    public void queryIsFoldedLikeTheKeys() {
+        assertEquals(Arrays.asList("mayap", "Mayap a abak", "mayap a gatpanapun"), words(index.search("  MAYÁP ")));
+        assertEquals(Arrays.asList("Kumusta"), words(index.search("Komusta")));
+    }
+
+    @Test
+    public void wholeMeaningWordFindsItsHeadwords() {
+        assertEquals(Arrays.asList("bale"), words(index.search("house")));
+        // Same relevance keeps dictionary order
+        assertEquals(Arrays.asList("Mayap a abak", "abak"), words(index.search("morning")));
+    }
+
+    @Test
+    public void substringOfWordMatches() {
+        assertEquals(Arrays.asList("Mayap a abak", "mayap", "mayap a gatpanapun"), words(index.search("yap")));
+    }
+
+    @Test
+    public void misspelledWordIsFound() {
+        assertEquals(Arrays.asList("mayap"), words(index.search("mayab")));
+        // One edit is the limit below six characters
+        assertTrue(index.search("maiab").isEmpty());
+    }
+
+    @Test
+    public void substringOfMeaningRanksLast() {
+        assertEquals(Arrays.asList("mayap a gatpanapun"), words(index.search("after")));
+
+        DictionaryIndex ranked = new DictionaryIndex(Arrays.asList(
+                new DictionaryEntry("dalan", "road to the house", ""),
+                new DictionaryEntry("housing", "pamaglolo", "")), false);
+        // A match on the word beats a match on the meaning
+        assertEquals(Arrays.asList("housing", "dalan"), words(ranked.search("hous")));
+    }
+
+    @Test
+    public void englishMeaningsAreFoldedAsKapampangan() {
+        DictionaryIndex english = new DictionaryIndex(Arrays.asList(
+                new DictionaryEntry("house", "bale", "haus"),
+                new DictionaryEntry("morning", "abak", "")), true);
+        assertEquals(Arrays.asList("house"), words(english.search("bali")));
+        assertEquals(Arrays.asList("morning"), words(english.search("Morning")));
+    }
+
+    @Test
+    public void limitCapsEntriesButCountsEveryMatch() {
+        DictionaryIndex.SearchResult result = index.search("mayap", 1);
+        assertEquals(Arrays.asList("mayap"), words(result.entries));
+        assertEquals(3, result.totalMatches);
+        assertTrue(result.hasMore());
+
+        DictionaryIndex.SearchResult all = index.search("mayap", 10);
+        assertEquals(3, all.entries.size());
+        assertFalse(all.hasMore());
+    }
+
+    @Test
+    public void blankQueryAndEmptyIndexFindNothing() {
+        assertTrue(index.search("   ").isEmpty());
+        assertEquals(0, index.search("mayap", 0).totalMatches);
+        assertTrue(new DictionaryIndex(new ArrayList<>(), false).search("mayap").isEmpty());
+        assertTrue(new DictionaryIndex(null, true).isEmpty());
+    }
+
+    private static List<String> words(List<DictionaryEntry> entries) {
+        List<String> words = new ArrayList<>();
+        for (DictionaryEntry entry : entries) {
+            words.add(entry.getWord());
+        }
+        return words;
+    }
+}
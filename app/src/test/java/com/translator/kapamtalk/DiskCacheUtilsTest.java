@@ -0,0 +1,66 @@
+package com.translator.kapamtalk;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+public class DiskCacheUtilsTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void sweepKeepsDownloadsOfThisProcess() throws IOException {
+        File dir = temporaryFolder.newFolder();
+        File current = DiskCacheUtils.createPartialFile(dir, "abc");
+        File stale = new File(dir, "0123abcd_abc_42" + DiskCacheUtils.PARTIAL_EXTENSION);
+        File cached = new File(dir, "abc.wav");
+        assertTrue(stale.createNewFile());
+        assertTrue(cached.createNewFile());
+
+        DiskCacheUtils.deleteStalePartialFiles(dir);
+
+        assertTrue(current.exists());
+        assertFalse(stale.exists());
+        assertTrue(cached.exists());
+    }
+
+    @Test
+    public void trimmingIgnoresDownloadsInProgress() throws IOException {
+        File dir = temporaryFolder.newFolder();
+        File partial = DiskCacheUtils.createPartialFile(dir, "abc");
+        Files.write(partial.toPath(), new byte[4096]);
+        assertTrue(partial.setLastModified(System.currentTimeMillis() - 3_600_000L));
+        File cached = new File(dir, "def.wav");
+        Files.write(cached.toPath(), new byte[1024]);
+
+        DiskCacheUtils.trimDirectory(dir, 2048, 60_000L);
+
+        // The partial file is older than the age limit and would overflow the budget
+        assertTrue(partial.exists());
+        assertTrue(cached.exists());
+    }
+
+    @Test
+    public void trimmingEvictsLeastRecentlyUsedFirst() throws IOException {
+        File dir = temporaryFolder.newFolder();
+        long now = System.currentTimeMillis();
+        File older = new File(dir, "older.wav");
+        File newer = new File(dir, "newer.wav");
+        Files.write(older.toPath(), new byte[1024]);
+        Files.write(newer.toPath(), new byte[1024]);
+        assertTrue(older.setLastModified(now - 120_000L));
+        assertTrue(newer.setLastModified(now - 60_000L));
+
+        DiskCacheUtils.trimDirectory(dir, 1500, 0);
+
+        assertFalse(older.exists());
+        assertTrue(newer.exists());
+    }
+}
@@ -0,0 +1,79 @@
+package com.translator.kapamtalk;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static com.translator.kapamtalk.AudioPreprocessorTest.concat;
+import static com.translator.kapamtalk.AudioPreprocessorTest.tone;
+import static org.junit.Assert.*;
+
+public class PronunciationPrescreenTest {
+
+    private static final int RATE = PcmRecorder.SAMPLE_RATE;
+
+    @Test
+    public void clearSpeechIsAccepted() {
+        PronunciationPrescreen.Result result = check(concat(tone(RATE, 60, 30), tone(RATE, 440, 8000), tone(RATE, 60, 30)));
+        assertTrue(result.isAcceptable());
+        assertNull(result.getMessage());
+    }
+
+    @Test
+    public void takeThatIsAlmostAllSpeechIsAccepted() {
+        // 100 ms of room tone before two seconds of speech puts the quietest tenth inside the speech
+        PronunciationPrescreen.Result result = check(concat(tone(RATE / 10, 60, 30), tone(2 * RATE, 440, 8000)));
+        assertTrue(result.isAcceptable());
+    }
+
+    @Test
+    public void silenceIsNoInput() {
+        assertRejected("No sound", check(new short[RATE]));
+    }
+
+    @Test
+    public void takeShorterThanAFrameIsTooShort() {
+        assertRejected("too short", check(tone(100, 440, 8000)));
+    }
+
+    @Test
+    public void constantNoiseIsTooNoisy() {
+        // About -24 dBFS with no pause anywhere
+        Random random = new Random(42);
+        short[] noise = new short[2 * RATE];
+        for (int i = 0; i < noise.length; i++) {
+            noise[i] = (short) Math.round(random.nextGaussian() * 2000);
+        }
+        assertRejected("too noisy", check(noise));
+    }
+
+    @Test
+    public void briefSoundIsNotSpeech() {
+        // 100 ms is a tap or a breath
+        assertRejected("couldn't hear", check(concat(tone(RATE, 60, 30), tone(RATE / 10, 440, 8000), tone(RATE, 60, 30))));
+    }
+
+    @Test
+    public void faintSpeechIsTooQuiet() {
+        // About -44 dBFS: above the speech threshold but below the scoring limit
+        assertRejected("too quiet", check(concat(tone(RATE, 60, 5), tone(RATE, 440, 200), tone(RATE, 60, 5))));
+    }
+
+    @Test
+    public void fullScaleSpeechIsDistorted() {
+        assertRejected("distorted", check(concat(tone(RATE, 60, 30), tone(RATE, 440, 32767), tone(RATE, 60, 30))));
+    }
+
+    private static PronunciationPrescreen.Result check(short[] samples) {
+        int peak = 0;
+        for (short sample : samples) {
+            peak = Math.max(peak, Math.abs(sample));
+        }
+        return PronunciationPrescreen.check(new PcmRecorder.Recording(samples, peak));
+    }
+
+    private static void assertRejected(String expected, PronunciationPrescreen.Result result) {
+        assertFalse(result.isAcceptable());
+        assertTrue(result.getMessage(), result.getMessage().contains(expected));
+    }
+}
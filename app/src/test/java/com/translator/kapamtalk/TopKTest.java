@@ -0,0 +1,62 @@
+package com.translator.kapamtalk;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TopKTest {
+
+    @Test
+    public void keepsTheBestScoresOnceFull() {
+        DictionaryIndex.TopK top = new DictionaryIndex.TopK(3);
+        int[] scores = {5, 1, 9, 3, 7, 2, 8};
+        for (int id = 0; id < scores.length; id++) {
+            top.offer(scores[id], id);
+        }
+        assertArrayEquals(new int[] {2, 6, 4}, ids(top));
+    }
+
+    @Test
+    public void equalScoresPreferTheLowerId() {
+        DictionaryIndex.TopK top = new DictionaryIndex.TopK(2);
+        top.offer(4, 7);
+        top.offer(4, 3);
+        top.offer(4, 9);
+        top.offer(4, 1);
+        assertArrayEquals(new int[] {1, 3}, ids(top));
+    }
+
+    @Test
+    public void sortsAFewEntriesWithoutFillingUp() {
+        DictionaryIndex.TopK top = new DictionaryIndex.TopK(10);
+        top.offer(1, 0);
+        top.offer(3, 1);
+        top.offer(2, 2);
+        assertArrayEquals(new int[] {1, 2, 0}, ids(top));
+    }
+
+    @Test
+    public void idSurvivesTheKeyEncoding() {
+        DictionaryIndex.TopK top = new DictionaryIndex.TopK(1);
+        top.offer(Integer.MAX_VALUE >> 1, 123456);
+        long[] keys = top.sortedDescending();
+        assertEquals(1, keys.length);
+        assertEquals(123456, DictionaryIndex.TopK.idOf(keys[0]));
+    }
+
+    @Test
+    public void zeroCapacityKeepsNothing() {
+        DictionaryIndex.TopK top = new DictionaryIndex.TopK(0);
+        top.offer(10, 0);
+        assertEquals(0, top.sortedDescending().length);
+    }
+
+    private static int[] ids(DictionaryIndex.TopK top) {
+        long[] keys = top.sortedDescending();
+        int[] ids = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            ids[i] = DictionaryIndex.TopK.idOf(keys[i]);
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,101 @@
+package com.translator.kapamtalk;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+
+import static org.junit.Assert.*;
+
+public class TranslationCacheTest {
+
+    private static final long DAY_MS = 24 * 60 * 60 * 1000L;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File dir;
+
+    @Before
+    public void setUp() throws Exception {
+        dir = temporaryFolder.newFolder("translations");
+    }
+
+    @Test
+    public void entriesSurviveARestart() {
+        String key = TranslationCache.key(" Good morning ", "EN", "pam");
+        long writtenAt = System.currentTimeMillis();
+        new TranslationCache(dir).writeToDisk(key, new TranslationCache.Entry("Mayap a abak", writtenAt));
+
+        TranslationCache.Entry entry = new TranslationCache(dir).readFromDisk(
+                TranslationCache.key("Good morning", "en", "PAM"));
+        assertNotNull(entry);
+        assertEquals("Mayap a abak", entry.translatedText);
+        assertEquals(writtenAt, entry.createdAt);
+        assertNull(new TranslationCache(dir).readFromDisk(TranslationCache.key("Good morning", "pam", "en")));
+    }
+
+    @Test
+    public void entriesExpireAWeekAfterTheyWereWritten() {
+        TranslationCache cache = new TranslationCache(dir);
+        String key = TranslationCache.key("house", "en", "pam");
+        cache.writeToDisk(key, new TranslationCache.Entry("bale", System.currentTimeMillis() - 8 * DAY_MS));
+
+        assertNull(cache.readFromDisk(key));
+        assertEquals(0, dir.list().length);
+    }
+
+    @Test
+    public void readingDoesNotExtendTheLifetime() {
+        TranslationCache cache = new TranslationCache(dir);
+        String fresh = TranslationCache.key("now", "en", "pam");
+        String stale = TranslationCache.key("house", "en", "pam");
+        cache.writeToDisk(fresh, new TranslationCache.Entry("ngeni", System.currentTimeMillis() - DAY_MS));
+        cache.writeToDisk(stale, new TranslationCache.Entry("bale", System.currentTimeMillis() - 8 * DAY_MS));
+        // A recent read leaves the file freshly modified, as DiskCacheUtils.touch does
+        for (File file : dir.listFiles()) {
+            assertTrue(file.setLastModified(System.currentTimeMillis()));
+        }
+
+        cache.trimDisk();
+
+        assertEquals(1, dir.list().length);
+        assertEquals("ngeni", cache.readFromDisk(fresh).translatedText);
+    }
+
+    @Test
+    public void diskIsTrimmedToItsBudgetLeastRecentlyReadFirst() {
+        TranslationCache cache = new TranslationCache(dir);
+        String text = new String(new char[200 * 1024]).replace('\0', 'a');
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 8; i++) {
+            String key = TranslationCache.key("text " + i, "en", "pam");
+            cache.writeToDisk(key, new TranslationCache.Entry(text, now));
+            new File(dir, DiskCacheUtils.sha256Hex(key)).setLastModified(now - (8 - i) * 60_000L);
+        }
+
+        cache.trimDisk();
+
+        long total = 0;
+        for (File file : dir.listFiles()) {
+            total += file.length();
+        }
+        assertTrue(total <= 1024 * 1024);
+        assertNull(cache.readFromDisk(TranslationCache.key("text 0", "en", "pam")));
+        assertNotNull(cache.readFromDisk(TranslationCache.key("text 7", "en", "pam")));
+    }
+
+    @Test
+    public void unreadableEntriesAreDropped() throws Exception {
+        TranslationCache cache = new TranslationCache(dir);
+        String key = TranslationCache.key("house", "en", "pam");
+        assertTrue(new File(dir, DiskCacheUtils.sha256Hex(key)).createNewFile());
+
+        cache.trimDisk();
+
+        assertEquals(0, dir.list().length);
+        assertNull(cache.readFromDisk(key));
+    }
+}
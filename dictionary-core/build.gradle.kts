@@ -0,0 +1,15 @@
+plugins {
+    `java-library`
+}
+
+// Plain Java, so the same folding code runs in the app and in the build step that
+// compiles the dictionary assets (see compileDictionaries in app/build.gradle.kts).
+java {
+    sourceCompatibility = JavaVersion.VERSION_17
+    targetCompatibility = JavaVersion.VERSION_17
+}
+
+dependencies {
+    api("com.google.code.gson:gson:2.9.0")
+    testImplementation(libs.junit)
+}
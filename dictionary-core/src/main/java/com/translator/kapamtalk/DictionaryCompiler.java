@@ -0,0 +1,58 @@
+package com.translator.kapamtalk;
+
+import com.google.gson.stream.JsonReader;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Build step behind the compileDictionaries task: turns each dictionary_*.json into a
+ * .kdict file of the same name (see {@link DictionaryFormat}).
+ *
+ * Usage: DictionaryCompiler &lt;output dir&gt; &lt;json file&gt;...
+ */
+public final class DictionaryCompiler {
+
+    private DictionaryCompiler() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            throw new IllegalArgumentException("Usage: DictionaryCompiler <output dir> <json file>...");
+        }
+        File outputDir = new File(args[0]);
+        if (!outputDir.isDirectory() && !outputDir.mkdirs()) {
+            throw new IOException("Cannot create " + outputDir);
+        }
+
+        for (int i = 1; i < args.length; i++) {
+            File json = new File(args[i]);
+            String name = json.getName().replaceFirst("\\.json$", "");
+            // dictionary_english.json lists English words, every other file Kapampangan ones
+            boolean isEnglish = name.endsWith("_english");
+
+            List<DictionaryEntry> entries = new ArrayList<>();
+            try (JsonReader reader = new JsonReader(new InputStreamReader(
+                    new FileInputStream(json), StandardCharsets.UTF_8))) {
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    entries.add(DictionaryJson.readEntry(reader));
+                }
+                reader.endArray();
+            }
+
+            try (OutputStream out = new BufferedOutputStream(
+                    new FileOutputStream(new File(outputDir, name + ".kdict")))) {
+                DictionaryFormat.write(entries.toArray(new DictionaryEntry[0]), isEnglish, out);
+            }
+        }
+    }
+}
@@ -5,6 +5,15 @@ public class DictionaryEntry {
     private String meaning;
     private String pronunciation;
 
+    public DictionaryEntry() {
+    }
+
+    public DictionaryEntry(String word, String meaning, String pronunciation) {
+        this.word = word;
+        this.meaning = meaning;
+        this.pronunciation = pronunciation;
+    }
+
     // Getters and setters
     public String getWord() { return word; }
     public void setWord(String word) { this.word = word; }
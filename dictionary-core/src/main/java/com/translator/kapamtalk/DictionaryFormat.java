@@ -0,0 +1,219 @@
+package com.translator.kapamtalk;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The compiled dictionary asset (.kdict): the entries together with every table their
+ * search index needs, so the app maps the file and copies arrays out of it instead of
+ * parsing JSON and folding text.
+ *
+ * All numbers are big-endian. Strings are an int byte length (-1 for null) followed by
+ * UTF-8 bytes; arrays are an int length followed by the elements.
+ * <ol>
+ * <li>Header: magic "KDIC", version, flags (1 = English), entry count.</li>
+ * <li>Per entry: word, meaning, pronunciation, word key, meaning key, pronunciation key.</li>
+ * <li>Sorted keys: int array of entry ids shifted left by one, the low bit set when the
+ * key is the entry's pronunciation key rather than its word key.</li>
+ * <li>Word grams, then meaning grams: slot keys (long array), slot starts, slot ends and
+ * postings (int arrays).</li>
+ * <li>Meaning words: word count and the words, then starts and postings (int arrays).</li>
+ * </ol>
+ */
+public final class DictionaryFormat {
+    static final int MAGIC = 0x4B444943; // "KDIC"
+    static final int VERSION = 2;
+    private static final int FLAG_ENGLISH = 1;
+
+    private DictionaryFormat() {
+    }
+
+    public static final class Compiled {
+        public final DictionaryEntry[] entries;
+        public final boolean isEnglish;
+        public final DictionaryTables tables;
+
+        Compiled(DictionaryEntry[] entries, boolean isEnglish, DictionaryTables tables) {
+            this.entries = entries;
+            this.isEnglish = isEnglish;
+            this.tables = tables;
+        }
+    }
+
+    public static void write(DictionaryEntry[] entries, boolean isEnglish, OutputStream output)
+            throws IOException {
+        DictionaryTables tables = DictionaryTables.build(entries, isEnglish);
+        DataOutputStream out = new DataOutputStream(output);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(isEnglish ? FLAG_ENGLISH : 0);
+        out.writeInt(entries.length);
+
+        for (int i = 0; i < entries.length; i++) {
+            writeString(out, entries[i].getWord());
+            writeString(out, entries[i].getMeaning());
+            writeString(out, entries[i].getPronunciation());
+            writeString(out, tables.wordKeys[i]);
+            writeString(out, tables.meaningKeys[i]);
+            writeString(out, tables.pronunciationKeys[i]);
+        }
+
+        int[] sorted = new int[tables.sortedKeys.length];
+        for (int i = 0; i < sorted.length; i++) {
+            int id = tables.sortedIds[i];
+            boolean pronunciation = !tables.sortedKeys[i].equals(tables.wordKeys[id]);
+            sorted[i] = id << 1 | (pronunciation ? 1 : 0);
+        }
+        writeInts(out, sorted);
+
+        writeGrams(out, tables.wordGrams);
+        writeGrams(out, tables.meaningGrams);
+
+        WordTable words = tables.meaningWords;
+        out.writeInt(words.words.length);
+        for (String word : words.words) {
+            writeString(out, word);
+        }
+        writeInts(out, words.starts);
+        writeInts(out, words.postings);
+        out.flush();
+    }
+
+    /**
+     * Reads a compiled dictionary from a buffer positioned at its first byte, typically
+     * a memory-mapped asset. Throws if the buffer holds anything else.
+     */
+    public static Compiled read(ByteBuffer source) throws IOException {
+        ByteBuffer buffer = source.slice().order(ByteOrder.BIG_ENDIAN);
+        try {
+            if (buffer.remaining() < 8 || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("Not a compiled dictionary");
+            }
+            boolean isEnglish = (buffer.getInt() & FLAG_ENGLISH) != 0;
+            int n = readCount(buffer, 6 * 4);
+
+            DictionaryEntry[] entries = new DictionaryEntry[n];
+            String[] wordKeys = new String[n];
+            String[] meaningKeys = new String[n];
+            String[] pronunciationKeys = new String[n];
+            byte[][] scratch = {new byte[256]};
+            for (int i = 0; i < n; i++) {
+                String word = readString(buffer, scratch);
+                String meaning = readString(buffer, scratch);
+                String pronunciation = readString(buffer, scratch);
+                entries[i] = new DictionaryEntry(word, meaning, pronunciation);
+                wordKeys[i] = readString(buffer, scratch);
+                meaningKeys[i] = readString(buffer, scratch);
+                pronunciationKeys[i] = readString(buffer, scratch);
+            }
+
+            int[] sorted = readInts(buffer);
+            String[] sortedKeys = new String[sorted.length];
+            int[] sortedIds = new int[sorted.length];
+            for (int i = 0; i < sorted.length; i++) {
+                int id = sorted[i] >>> 1;
+                sortedIds[i] = id;
+                sortedKeys[i] = (sorted[i] & 1) != 0 ? pronunciationKeys[id] : wordKeys[id];
+                if (sortedKeys[i] == null) throw new IOException("Sorted key " + i + " is missing");
+            }
+
+            GramTable wordGrams = readGrams(buffer);
+            GramTable meaningGrams = readGrams(buffer);
+
+            String[] words = new String[readCount(buffer, 4)];
+            for (int i = 0; i < words.length; i++) {
+                words[i] = readString(buffer, scratch);
+            }
+            WordTable meaningWords = new WordTable(words, readInts(buffer), readInts(buffer));
+            if (buffer.hasRemaining() || meaningWords.starts.length != words.length + 1) {
+                throw new IOException("Compiled dictionary has an unexpected layout");
+            }
+
+            return new Compiled(entries, isEnglish, new DictionaryTables(wordKeys, meaningKeys,
+                    pronunciationKeys, sortedKeys, sortedIds, wordGrams, meaningGrams, meaningWords));
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IOException("Compiled dictionary is truncated", e);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+        out.writeInt(values.length);
+        for (int value : values) {
+            out.writeInt(value);
+        }
+    }
+
+    private static void writeGrams(DataOutputStream out, GramTable grams) throws IOException {
+        out.writeInt(grams.slotKeys.length);
+        for (long key : grams.slotKeys) {
+            out.writeLong(key);
+        }
+        writeInts(out, grams.slotStarts);
+        writeInts(out, grams.slotEnds);
+        writeInts(out, grams.postings);
+    }
+
+    private static String readString(ByteBuffer buffer, byte[][] scratch) throws IOException {
+        int length = buffer.getInt();
+        if (length < 0) return null;
+        if (length > buffer.remaining()) throw new IOException("Compiled dictionary is truncated");
+        if (length > scratch[0].length) {
+            scratch[0] = new byte[Math.max(length, scratch[0].length * 2)];
+        }
+        buffer.get(scratch[0], 0, length);
+        return new String(scratch[0], 0, length, StandardCharsets.UTF_8);
+    }
+
+    // A length prefix, checked against what is left so a corrupt file cannot force a huge allocation
+    private static int readCount(ByteBuffer buffer, int minBytesEach) throws IOException {
+        int count = buffer.getInt();
+        if (count < 0 || (long) count * minBytesEach > buffer.remaining()) {
+            throw new IOException("Compiled dictionary is truncated");
+        }
+        return count;
+    }
+
+    private static int[] readInts(ByteBuffer buffer) throws IOException {
+        int[] values = new int[readCount(buffer, 4)];
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + values.length * 4);
+        return values;
+    }
+
+    private static GramTable readGrams(ByteBuffer buffer) throws IOException {
+        int capacity = readCount(buffer, 8);
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IOException("Gram table capacity " + capacity + " is not a power of two");
+        }
+        long[] slotKeys = new long[capacity];
+        buffer.asLongBuffer().get(slotKeys);
+        buffer.position(buffer.position() + capacity * 8);
+        int[] slotStarts = readInts(buffer);
+        int[] slotEnds = readInts(buffer);
+        int[] postings = readInts(buffer);
+        if (slotStarts.length != capacity || slotEnds.length != capacity) {
+            throw new IOException("Gram table slots do not match its capacity");
+        }
+        for (int slot = 0; slot < capacity; slot++) {
+            if (slotStarts[slot] < 0 || slotStarts[slot] > slotEnds[slot] || slotEnds[slot] > postings.length) {
+                throw new IOException("Gram table slot " + slot + " points outside its postings");
+            }
+        }
+        return new GramTable(slotKeys, slotStarts, slotEnds, postings);
+    }
+}
@@ -0,0 +1,50 @@
+package com.translator.kapamtalk;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+
+/**
+ * Reads entries of the dictionary JSON assets: an array of objects with "word",
+ * "meaning" and "pronunciation". Other fields are skipped.
+ */
+public final class DictionaryJson {
+
+    private DictionaryJson() {
+    }
+
+    public static DictionaryEntry readEntry(JsonReader reader) throws IOException {
+        String word = null;
+        String meaning = null;
+        String pronunciation = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "word":
+                    word = nextStringOrNull(reader);
+                    break;
+                case "meaning":
+                    meaning = nextStringOrNull(reader);
+                    break;
+                case "pronunciation":
+                    pronunciation = nextStringOrNull(reader);
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+        return new DictionaryEntry(word, meaning, pronunciation);
+    }
+
+    private static String nextStringOrNull(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        return reader.nextString();
+    }
+}
@@ -0,0 +1,120 @@
+package com.translator.kapamtalk;
+
+import java.text.Normalizer;
+import java.util.Locale;
+
+/**
+ * Folds dictionary text into search keys so spelling variants compare equal.
+ * Applied once per entry when the index is built and once per query.
+ */
+public final class DictionaryNormalizer {
+
+    private DictionaryNormalizer() {
+    }
+
+    /**
+     * Lowercases, strips accents (so "ñg" becomes "ng"), drops glottal-stop marks and
+     * hyphens, and maps the IPA symbols used in pronunciations to plain letters.
+     */
+    public static String foldAccents(String value) {
+        if (value == null || value.isEmpty()) return "";
+
+        String lower = value.toLowerCase(Locale.ROOT);
+        // Decomposition is the expensive step; plain ASCII text has nothing to decompose
+        String decomposed = isAscii(lower) ? lower : Normalizer.normalize(lower, Normalizer.Form.NFD);
+        StringBuilder sb = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) continue;
+            switch (c) {
+                // Glottal stops and stress marks carry no spelling information
+                case '\'':
+                case '‘':
+                case '’':
+                case '`':
+                case 'ʔ':
+                case 'ˈ':
+                case 'ˌ':
+                case 'ː':
+                case '-':
+                    break;
+                case 'æ':
+                case 'ɑ':
+                    sb.append('a');
+                    break;
+                case 'ə':
+                case 'ɛ':
+                    sb.append('e');
+                    break;
+                case 'ɪ':
+                    sb.append('i');
+                    break;
+                case 'ɔ':
+                    sb.append('o');
+                    break;
+                case 'ʊ':
+                    sb.append('u');
+                    break;
+                case 'ŋ':
+                    sb.append("ng");
+                    break;
+                case 'ʃ':
+                    sb.append("sh");
+                    break;
+                case 'θ':
+                case 'ð':
+                    sb.append("th");
+                    break;
+                default:
+                    sb.append(c);
+                    break;
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Accent folding plus Kapampangan orthographic variants: o/u and e/i are
+     * interchangeable ("Komusta"/"Kumusta"), and the Spanish-era c/qu spellings map
+     * to k ("ch" to "ts").
+     */
+    public static String foldKapampangan(String value) {
+        String folded = foldAccents(value);
+        StringBuilder sb = new StringBuilder(folded.length());
+        for (int i = 0; i < folded.length(); i++) {
+            char c = folded.charAt(i);
+            char next = i + 1 < folded.length() ? folded.charAt(i + 1) : 0;
+            switch (c) {
+                case 'o':
+                    sb.append('u');
+                    break;
+                case 'e':
+                    sb.append('i');
+                    break;
+                case 'q':
+                    sb.append('k');
+                    if (next == 'u') i++;
+                    break;
+                case 'c':
+                    if (next == 'h') {
+                        sb.append("ts");
+                        i++;
+                    } else {
+                        sb.append('k');
+                    }
+                    break;
+                default:
+                    sb.append(c);
+                    break;
+            }
+        }
+        return sb.toString();
+    }
+
+    private static boolean isAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > 0x7F) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,90 @@
+package com.translator.kapamtalk;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Everything a dictionary's search index derives from its entries: the word, meaning and
+ * pronunciation keys folded by {@link DictionaryNormalizer}, the word and pronunciation
+ * keys in sorted order for prefix lookups, trigram postings and the meaning-word index.
+ * The compileDictionaries build step stores them in the compiled asset; they are only
+ * built on the device when the app falls back to the JSON.
+ */
+public final class DictionaryTables {
+    public final String[] wordKeys;
+    public final String[] meaningKeys;
+    // Null where the pronunciation folds to nothing or to the word key itself
+    public final String[] pronunciationKeys;
+    public final String[] sortedKeys;
+    public final int[] sortedIds;
+    public final GramTable wordGrams;
+    public final GramTable meaningGrams;
+    public final WordTable meaningWords;
+
+    DictionaryTables(String[] wordKeys, String[] meaningKeys, String[] pronunciationKeys,
+                     String[] sortedKeys, int[] sortedIds, GramTable wordGrams,
+                     GramTable meaningGrams, WordTable meaningWords) {
+        this.wordKeys = wordKeys;
+        this.meaningKeys = meaningKeys;
+        this.pronunciationKeys = pronunciationKeys;
+        this.sortedKeys = sortedKeys;
+        this.sortedIds = sortedIds;
+        this.wordGrams = wordGrams;
+        this.meaningGrams = meaningGrams;
+        this.meaningWords = meaningWords;
+    }
+
+    public static DictionaryTables build(DictionaryEntry[] entries, boolean isEnglish) {
+        int n = entries.length;
+        String[] wordKeys = new String[n];
+        String[] meaningKeys = new String[n];
+        String[] pronunciationKeys = new String[n];
+
+        List<String> keys = new ArrayList<>(n * 2);
+        List<Integer> keyIds = new ArrayList<>(n * 2);
+        for (int i = 0; i < n; i++) {
+            DictionaryEntry entry = entries[i];
+            wordKeys[i] = foldWord(entry.getWord(), isEnglish);
+            meaningKeys[i] = foldMeaning(entry.getMeaning(), isEnglish);
+
+            keys.add(wordKeys[i]);
+            keyIds.add(i);
+            String pronunciationKey = foldWord(entry.getPronunciation(), isEnglish);
+            if (!pronunciationKey.isEmpty() && !pronunciationKey.equals(wordKeys[i])) {
+                pronunciationKeys[i] = pronunciationKey;
+                keys.add(pronunciationKey);
+                keyIds.add(i);
+            }
+        }
+
+        Integer[] order = new Integer[keys.size()];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> {
+            int cmp = keys.get(a).compareTo(keys.get(b));
+            return cmp != 0 ? cmp : Integer.compare(keyIds.get(a), keyIds.get(b));
+        });
+        String[] sortedKeys = new String[order.length];
+        int[] sortedIds = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            sortedKeys[i] = keys.get(order[i]);
+            sortedIds[i] = keyIds.get(order[i]);
+        }
+
+        return new DictionaryTables(wordKeys, meaningKeys, pronunciationKeys, sortedKeys, sortedIds,
+                GramTable.build(wordKeys), GramTable.build(meaningKeys), WordTable.build(meaningKeys));
+    }
+
+    // Kapampangan text gets orthographic folding, English text only accent folding
+    public static String foldWord(String value, boolean isEnglish) {
+        return isEnglish
+                ? DictionaryNormalizer.foldAccents(value)
+                : DictionaryNormalizer.foldKapampangan(value);
+    }
+
+    public static String foldMeaning(String value, boolean isEnglish) {
+        return isEnglish
+                ? DictionaryNormalizer.foldKapampangan(value)
+                : DictionaryNormalizer.foldAccents(value);
+    }
+}
@@ -0,0 +1,125 @@
+package com.translator.kapamtalk;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Trigram posting lists: for every three-character gram, the sorted ids of the keys that
+ * contain it. An open-addressed slot table points into one flat postings array, so the
+ * table is written to and read from a compiled dictionary as it is.
+ */
+public final class GramTable {
+    public static final int GRAM_SIZE = 3;
+
+    final long[] slotKeys;
+    // The gram in a slot has postings[slotStarts[slot]] up to postings[slotEnds[slot]];
+    // a slot is empty when both are equal
+    final int[] slotStarts;
+    final int[] slotEnds;
+    final int[] postings;
+    private final int mask;
+
+    GramTable(long[] slotKeys, int[] slotStarts, int[] slotEnds, int[] postings) {
+        this.slotKeys = slotKeys;
+        this.slotStarts = slotStarts;
+        this.slotEnds = slotEnds;
+        this.postings = postings;
+        this.mask = slotKeys.length - 1;
+    }
+
+    public static GramTable build(String[] values) {
+        // Gram to {number of ids, last id counted}; ids arrive in increasing order
+        Map<Long, int[]> counts = new HashMap<>();
+        for (int id = 0; id < values.length; id++) {
+            String value = values[id];
+            for (int i = 0; i + GRAM_SIZE <= value.length(); i++) {
+                long gram = pack(value, i);
+                int[] count = counts.get(gram);
+                if (count == null) {
+                    count = new int[]{0, -1};
+                    counts.put(gram, count);
+                }
+                if (count[1] != id) {
+                    count[0]++;
+                    count[1] = id;
+                }
+            }
+        }
+
+        int capacity = Integer.highestOneBit(Math.max(counts.size(), 1) * 2) * 2;
+        long[] slotKeys = new long[capacity];
+        int[] slotStarts = new int[capacity];
+        int[] slotEnds = new int[capacity];
+        boolean[] used = new boolean[capacity];
+        int total = 0;
+        for (Map.Entry<Long, int[]> e : counts.entrySet()) {
+            long gram = e.getKey();
+            int slot = slot(gram, capacity - 1);
+            while (used[slot]) {
+                slot = (slot + 1) & (capacity - 1);
+            }
+            used[slot] = true;
+            slotKeys[slot] = gram;
+            slotStarts[slot] = total;
+            slotEnds[slot] = total;
+            total += e.getValue()[0];
+        }
+
+        GramTable table = new GramTable(slotKeys, slotStarts, slotEnds, new int[total]);
+        for (int id = 0; id < values.length; id++) {
+            String value = values[id];
+            for (int i = 0; i + GRAM_SIZE <= value.length(); i++) {
+                int slot = table.findSlot(pack(value, i), used);
+                if (slotEnds[slot] == slotStarts[slot] || table.postings[slotEnds[slot] - 1] != id) {
+                    table.postings[slotEnds[slot]++] = id;
+                }
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Returns the slot holding the gram, or -1 when no key contains it.
+     */
+    public int find(long gram) {
+        int slot = slot(gram, mask);
+        while (slotStarts[slot] != slotEnds[slot]) {
+            if (slotKeys[slot] == gram) return slot;
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    public int start(int slot) {
+        return slotStarts[slot];
+    }
+
+    public int end(int slot) {
+        return slotEnds[slot];
+    }
+
+    // Ids of every gram back to back; read between start(slot) and end(slot)
+    public int[] postings() {
+        return postings;
+    }
+
+    public static long pack(String s, int offset) {
+        return ((long) s.charAt(offset) << 32)
+                | ((long) s.charAt(offset + 1) << 16)
+                | s.charAt(offset + 2);
+    }
+
+    // While building, slots are still empty by start/end, so occupancy comes from used
+    private int findSlot(long gram, boolean[] used) {
+        int slot = slot(gram, mask);
+        while (slotKeys[slot] != gram || !used[slot]) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static int slot(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
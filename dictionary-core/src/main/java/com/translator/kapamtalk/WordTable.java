@@ -0,0 +1,92 @@
+package com.translator.kapamtalk;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Reverse index from each whole word of the meanings to the ids of the entries it
+ * translates: sorted words, each pointing into one flat postings array.
+ */
+public final class WordTable {
+    final String[] words;
+    // Ids of words[i] are postings[starts[i]] up to postings[starts[i + 1]]
+    final int[] starts;
+    final int[] postings;
+
+    WordTable(String[] words, int[] starts, int[] postings) {
+        this.words = words;
+        this.starts = starts;
+        this.postings = postings;
+    }
+
+    public static WordTable build(String[] meaningKeys) {
+        // Word to {number of ids, last id counted}; ids arrive in increasing order
+        Map<String, int[]> counts = new TreeMap<>();
+        forEachWord(meaningKeys, (word, id) -> {
+            int[] count = counts.get(word);
+            if (count == null) {
+                count = new int[]{0, -1};
+                counts.put(word, count);
+            }
+            if (count[1] != id) {
+                count[0]++;
+                count[1] = id;
+            }
+        });
+
+        String[] words = counts.keySet().toArray(new String[0]);
+        int[] starts = new int[words.length + 1];
+        for (int i = 0; i < words.length; i++) {
+            starts[i + 1] = starts[i] + counts.get(words[i])[0];
+        }
+        int[] postings = new int[starts[words.length]];
+        int[] ends = Arrays.copyOf(starts, words.length);
+        forEachWord(meaningKeys, (word, id) -> {
+            int i = Arrays.binarySearch(words, word);
+            if (ends[i] == starts[i] || postings[ends[i] - 1] != id) {
+                postings[ends[i]++] = id;
+            }
+        });
+        return new WordTable(words, starts, postings);
+    }
+
+    /**
+     * Returns the position of the word, or -1 when no meaning contains it.
+     */
+    public int find(String word) {
+        int i = Arrays.binarySearch(words, word);
+        return i >= 0 ? i : -1;
+    }
+
+    public int start(int word) {
+        return starts[word];
+    }
+
+    public int end(int word) {
+        return starts[word + 1];
+    }
+
+    public int[] postings() {
+        return postings;
+    }
+
+    private interface WordVisitor {
+        void visit(String word, int id);
+    }
+
+    private static void forEachWord(String[] keys, WordVisitor visitor) {
+        for (int id = 0; id < keys.length; id++) {
+            String key = keys[id];
+            int i = 0;
+            while (i < key.length()) {
+                while (i < key.length() && !Character.isLetterOrDigit(key.charAt(i))) i++;
+                int start = i;
+                while (i < key.length() && Character.isLetterOrDigit(key.charAt(i))) i++;
+                if (i > start) {
+                    visitor.visit(key.substring(start, i), id);
+                }
+            }
+        }
+    }
+}
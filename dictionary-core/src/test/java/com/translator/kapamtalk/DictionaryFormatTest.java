@@ -0,0 +1,113 @@
+package com.translator.kapamtalk;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class DictionaryFormatTest {
+
+    private static final DictionaryEntry[] ENTRIES = {
+            new DictionaryEntry("Mayap a abak", "Good morning", "ma-yap a a-bak"),
+            new DictionaryEntry("Ñgeni", "now", "ŋe-ni"),
+            new DictionaryEntry("bale", "house", null),
+            new DictionaryEntry(null, "", "ba-le")};
+
+    @Test
+    public void entriesSurviveTheRoundTrip() throws IOException {
+        DictionaryFormat.Compiled compiled = DictionaryFormat.read(compile(ENTRIES, false));
+
+        assertFalse(compiled.isEnglish);
+        assertEquals(ENTRIES.length, compiled.entries.length);
+        for (int i = 0; i < ENTRIES.length; i++) {
+            assertEquals(ENTRIES[i].getWord(), compiled.entries[i].getWord());
+            assertEquals(ENTRIES[i].getMeaning(), compiled.entries[i].getMeaning());
+            assertEquals(ENTRIES[i].getPronunciation(), compiled.entries[i].getPronunciation());
+        }
+    }
+
+    @Test
+    public void storedTablesMatchTheTablesBuiltOnTheDevice() throws IOException {
+        for (boolean isEnglish : new boolean[] {false, true}) {
+            DictionaryTables expected = DictionaryTables.build(ENTRIES, isEnglish);
+            DictionaryTables tables = DictionaryFormat.read(compile(ENTRIES, isEnglish)).tables;
+
+            assertArrayEquals(expected.wordKeys, tables.wordKeys);
+            assertArrayEquals(expected.meaningKeys, tables.meaningKeys);
+            assertArrayEquals(expected.pronunciationKeys, tables.pronunciationKeys);
+            assertArrayEquals(expected.sortedKeys, tables.sortedKeys);
+            assertArrayEquals(expected.sortedIds, tables.sortedIds);
+            assertGramsEqual(expected.wordGrams, tables.wordGrams);
+            assertGramsEqual(expected.meaningGrams, tables.meaningGrams);
+            assertArrayEquals(expected.meaningWords.words, tables.meaningWords.words);
+            assertArrayEquals(expected.meaningWords.starts, tables.meaningWords.starts);
+            assertArrayEquals(expected.meaningWords.postings, tables.meaningWords.postings);
+        }
+    }
+
+    @Test
+    public void tablesPointAtTheRightEntries() throws IOException {
+        DictionaryTables tables = DictionaryFormat.read(compile(ENTRIES, false)).tables;
+
+        int slot = tables.wordGrams.find(GramTable.pack("bale", 0));
+        assertArrayEquals(new int[] {2}, postings(tables.wordGrams.postings(),
+                tables.wordGrams.start(slot), tables.wordGrams.end(slot)));
+        // Word grams come from the word keys only, not the pronunciation "ba-le"
+        assertEquals(-1, tables.wordGrams.find(GramTable.pack("xyz", 0)));
+
+        int word = tables.meaningWords.find("morning");
+        assertArrayEquals(new int[] {0}, postings(tables.meaningWords.postings(),
+                tables.meaningWords.start(word), tables.meaningWords.end(word)));
+        assertEquals(-1, tables.meaningWords.find("mor"));
+    }
+
+    @Test
+    public void bufferIsReadFromItsPosition() throws IOException {
+        ByteBuffer compiled = compile(ENTRIES, false);
+        ByteBuffer padded = ByteBuffer.allocate(compiled.remaining() + 3);
+        padded.position(3);
+        padded.put(compiled);
+        padded.position(3);
+        assertEquals("Ñgeni", DictionaryFormat.read(padded).entries[1].getWord());
+    }
+
+    @Test
+    public void emptyDictionaryRoundTrips() throws IOException {
+        DictionaryFormat.Compiled compiled = DictionaryFormat.read(compile(new DictionaryEntry[0], true));
+        assertEquals(0, compiled.entries.length);
+        assertEquals(0, compiled.tables.sortedKeys.length);
+        assertEquals(-1, compiled.tables.wordGrams.find(GramTable.pack("abc", 0)));
+    }
+
+    @Test(expected = IOException.class)
+    public void otherFilesAreRejected() throws IOException {
+        DictionaryFormat.read(ByteBuffer.wrap("[{\"word\": \"bale\"}]".getBytes()));
+    }
+
+    @Test(expected = IOException.class)
+    public void truncatedFileIsRejected() throws IOException {
+        ByteBuffer compiled = compile(ENTRIES, false);
+        DictionaryFormat.read(ByteBuffer.wrap(Arrays.copyOf(compiled.array(), compiled.limit() - 1)));
+    }
+
+    private static void assertGramsEqual(GramTable expected, GramTable actual) {
+        assertArrayEquals(expected.slotKeys, actual.slotKeys);
+        assertArrayEquals(expected.slotStarts, actual.slotStarts);
+        assertArrayEquals(expected.slotEnds, actual.slotEnds);
+        assertArrayEquals(expected.postings, actual.postings);
+    }
+
+    private static int[] postings(int[] postings, int start, int end) {
+        return Arrays.copyOfRange(postings, start, end);
+    }
+
+    private static ByteBuffer compile(DictionaryEntry[] entries, boolean isEnglish) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        DictionaryFormat.write(entries, isEnglish, out);
+        return ByteBuffer.wrap(out.toByteArray());
+    }
+}
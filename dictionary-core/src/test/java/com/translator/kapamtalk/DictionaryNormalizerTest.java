@@ -0,0 +1,50 @@
+package com.translator.kapamtalk;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class DictionaryNormalizerTest {
+
+    @Test
+    public void foldAccentsLowercasesAndStripsMarks() {
+        assertEquals("mayap", DictionaryNormalizer.foldAccents("Mayáp"));
+        assertEquals("ngeni", DictionaryNormalizer.foldAccents("Ñgeni"));
+        assertEquals("plain text", DictionaryNormalizer.foldAccents("Plain Text"));
+    }
+
+    @Test
+    public void foldAccentsDropsGlottalStopsAndHyphens() {
+        assertEquals("ali", DictionaryNormalizer.foldAccents("ʔa-lí"));
+        assertEquals("dont", DictionaryNormalizer.foldAccents("don’t"));
+        assertEquals("mayapaabak", DictionaryNormalizer.foldAccents("ma-yap-a-a-bak"));
+    }
+
+    @Test
+    public void foldAccentsMapsPronunciationSymbols() {
+        assertEquals("haus", DictionaryNormalizer.foldAccents("ˈhaʊs"));
+        assertEquals("thing", DictionaryNormalizer.foldAccents("θɪŋ"));
+        assertEquals("shoa", DictionaryNormalizer.foldAccents("ʃɔːæ"));
+    }
+
+    @Test
+    public void foldAccentsOfNothingIsEmpty() {
+        assertEquals("", DictionaryNormalizer.foldAccents(null));
+        assertEquals("", DictionaryNormalizer.foldAccents(""));
+        assertEquals("", DictionaryNormalizer.foldKapampangan(null));
+    }
+
+    @Test
+    public void foldKapampanganMergesVowelVariants() {
+        assertEquals("kumusta", DictionaryNormalizer.foldKapampangan("Komusta"));
+        assertEquals("kumusta", DictionaryNormalizer.foldKapampangan("Kumusta"));
+        assertEquals(DictionaryNormalizer.foldKapampangan("bale"), DictionaryNormalizer.foldKapampangan("bali"));
+    }
+
+    @Test
+    public void foldKapampanganMapsSpanishEraSpellings() {
+        assertEquals("kizun", DictionaryNormalizer.foldKapampangan("Quezon"));
+        assertEquals("tsabakanu", DictionaryNormalizer.foldKapampangan("Chabacano"));
+        assertEquals("kapampangan", DictionaryNormalizer.foldKapampangan("Capampañgan"));
+    }
+}
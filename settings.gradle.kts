@@ -21,3 +21,4 @@ dependencyResolutionManagement {
 
 rootProject.name = "KapamTalk"
 include(":app")
+include(":dictionary-core")